@@ -0,0 +1,7 @@
+package com.project.Todo.audit;
+
+public enum AuditChange {
+    CREATED,
+    UPDATED,
+    DELETED
+}
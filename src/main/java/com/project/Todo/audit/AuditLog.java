@@ -0,0 +1,584 @@
+package com.project.Todo.audit;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.entity.TodoCodec;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.exception.AuditBacklogException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Append-only history of todo changes, kept out of the request path. Changes are encoded
+ * with {@link TodoCodec} on the publishing thread and handed to a single writer thread,
+ * which appends them in batches to segment files and syncs once per batch.
+ * <p>
+ * Record layout: {@code [int length][long todoId][long epochMillis][byte change][todo]}.
+ * An in-memory index keeps, per todo, the segment and offset of each of its records, so
+ * reading a history is one positional read per record. The index is rebuilt from the
+ * segments on startup; a record cut off by a crash is truncated away. Sealed segments are
+ * compacted on a schedule, see {@link #compact()}.
+ * <p>
+ * Each instance logs the changes it committed under its own {@code todo.audit.dir}; with
+ * several instances the history of a todo is the union of their logs, ordered by time.
+ * <p>
+ * The queue is bounded. A change first reserves its place, waiting up to
+ * {@code todo.audit.max-wait} while the writer is behind, and only takes it once its
+ * transaction committed. When no place frees up in time the change fails with
+ * {@link AuditBacklogException} and its transaction rolls back, so no committed change goes
+ * unrecorded. The in-memory store has no transactions and has applied the change by then;
+ * its record is queued past the bound instead and counted as {@code overBound}.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{20})\\.log");
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Long.BYTES + Byte.BYTES;
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final int MAX_BATCH = 512;
+    private static final AuditChange[] CHANGES = AuditChange.values();
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Duration retention;
+    private final Duration maxWait;
+    private final int queueSize;
+    // Places left in the queue; the writer gives places back once it has written their records
+    private final Semaphore places;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<Long, Offsets> index = new ConcurrentHashMap<>();
+    // Readers hold it shared, compaction exclusively while it swaps segments and pointers
+    private final ReadWriteLock swap = new ReentrantReadWriteLock();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder overBound = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    // Written only by the writer thread once started, retention reads the current segment
+    private volatile Segment current;
+    private long writePosition;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    private record Pending(long todoId, byte[] bytes, boolean reserved) {
+    }
+
+    private record Segment(long id, Path path, FileChannel channel) {
+    }
+
+    // The records of a sealed segment that are within retention
+    private record Kept(Segment segment, MappedByteBuffer records, long[] positions, long bytes, boolean all) {
+    }
+
+    public AuditLog(@Value("${todo.audit.dir:data/audit}") Path directory,
+                    @Value("${todo.audit.segment-size:64MB}") DataSize segmentSize,
+                    @Value("${todo.audit.retention:P365D}") Duration retention,
+                    @Value("${todo.audit.queue-size:8192}") int queueSize,
+                    @Value("${todo.audit.max-wait:PT1S}") Duration maxWait) {
+        if (segmentSize.toBytes() < 1024 || segmentSize.toBytes() > MAX_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("todo.audit.segment-size must be between 1KB and 1GB");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentSize.toBytes();
+        this.retention = retention;
+        this.maxWait = maxWait;
+        this.queueSize = queueSize;
+        this.places = new Semaphore(queueSize);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    ids.add(Long.parseLong(matcher.group(1)));
+                } else if (file.getFileName().toString().endsWith(COMPACTING_SUFFIX)) {
+                    // Left by a compaction that did not finish, its segments are still in place
+                    Files.delete(file);
+                }
+            }
+        }
+        ids.sort(null);
+        for (long id : ids) {
+            Segment segment = open(id);
+            writePosition = recover(segment);
+            segments.put(id, segment);
+            current = segment;
+        }
+        if (current == null) {
+            current = open(0);
+            segments.put(0L, current);
+            writePosition = 0;
+        }
+
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        for (Segment segment : segments.values()) {
+            close(segment);
+        }
+    }
+
+    // Runs when the change is published, inside its transaction, so that a full queue can still roll it back
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        boolean reserved = reserve();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        enqueue(event, reserved);
+                    } else if (reserved) {
+                        places.release();
+                    }
+                }
+            });
+        } else {
+            enqueue(event, reserved);
+        }
+    }
+
+    private boolean reserve() {
+        try {
+            if (places.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            rejected.increment();
+            throw new AuditBacklogException("Audit log is more than " + queueSize + " changes behind");
+        }
+        overBound.increment();
+        return false;
+    }
+
+    // Encoded after the commit, so the record has the version the transaction wrote
+    private void enqueue(TodoChangedEvent event, boolean reserved) {
+        Todo previous = event.previous();
+        Todo todo = event.current();
+        AuditChange change = event.created() ? AuditChange.CREATED
+                : previous.isStatus() && !todo.isStatus() ? AuditChange.DELETED
+                : AuditChange.UPDATED;
+        queue.add(new Pending(event.id(), encode(event.id(), System.currentTimeMillis(), change, todo), reserved));
+    }
+
+    /**
+     * Recorded changes of one todo, oldest first. Changes still queued for writing are not included.
+     */
+    public List<AuditRecord> history(long todoId) {
+        Offsets offsets = index.get(todoId);
+        if (offsets == null) {
+            return List.of();
+        }
+        swap.readLock().lock();
+        try {
+            long[] pointers = offsets.toArray();
+            List<AuditRecord> records = new ArrayList<>(pointers.length);
+            for (long pointer : pointers) {
+                Segment segment = segments.get(pointer >>> OFFSET_BITS);
+                if (segment == null) {
+                    continue;
+                }
+                try {
+                    records.add(read(segment.channel(), pointer & OFFSET_MASK));
+                } catch (IOException e) {
+                    log.warn("Could not read audit record of todo {}", todoId, e);
+                }
+            }
+            return records;
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("written", written.sum());
+        metrics.put("queued", queue.size());
+        metrics.put("queueSize", queueSize);
+        metrics.put("rejected", rejected.sum());
+        metrics.put("overBound", overBound.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("segments", segments.size());
+        metrics.put("todos", index.size());
+        return metrics;
+    }
+
+    /**
+     * Applies retention per record and compacts what is left. Each sealed segment is read for
+     * its records within {@code todo.audit.retention}; runs of consecutive segments whose kept
+     * records fit in one segment are rewritten into one, and segments left without records are
+     * deleted. That trims the segment the retention boundary falls in, and merges segments
+     * left small by it or by a larger {@code todo.audit.segment-size}. The segment being
+     * written is never touched.
+     * <p>
+     * A run is written to a new file, which is renamed over the last segment of the run before
+     * the others are deleted: a crash in between leaves records twice, never loses one.
+     */
+    @Scheduled(fixedDelayString = "${todo.audit.retention-check:PT1H}")
+    public void compact() {
+        compact(System.currentTimeMillis() - retention.toMillis());
+    }
+
+    void compact(long cutoff) {
+        Segment active = current;
+        List<Kept> run = new ArrayList<>();
+        long runBytes = 0;
+        try {
+            for (Segment segment : segments.headMap(active.id()).values()) {
+                Kept kept = kept(segment, cutoff);
+                if (!run.isEmpty() && runBytes + kept.bytes() > segmentBytes) {
+                    rewrite(run, runBytes);
+                    run.clear();
+                    runBytes = 0;
+                }
+                run.add(kept);
+                runBytes += kept.bytes();
+            }
+            if (!run.isEmpty()) {
+                rewrite(run, runBytes);
+            }
+        } catch (IOException e) {
+            log.warn("Could not compact audit segments", e);
+        }
+    }
+
+    private Kept kept(Segment segment, long cutoff) throws IOException {
+        long size = segment.channel().size();
+        MappedByteBuffer records = segment.channel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+        LongStream.Builder positions = LongStream.builder();
+        long bytes = 0;
+        boolean all = true;
+        for (long position = 0; position < size; ) {
+            int length = Integer.BYTES + records.getInt((int) position);
+            if (records.getLong((int) position + Integer.BYTES + Long.BYTES) >= cutoff) {
+                positions.add(position);
+                bytes += length;
+            } else {
+                all = false;
+            }
+            position += length;
+        }
+        return new Kept(segment, records, positions.build().toArray(), bytes, all);
+    }
+
+    private void rewrite(List<Kept> run, long bytes) throws IOException {
+        if (run.size() == 1 && run.get(0).all()) {
+            return;
+        }
+        Segment last = run.get(run.size() - 1).segment();
+        Map<Long, Offsets> moved = new ConcurrentHashMap<>();
+        Segment merged = null;
+        if (bytes > 0) {
+            Path compacting = directory.resolve(last.path().getFileName() + COMPACTING_SUFFIX);
+            try (FileChannel target = FileChannel.open(compacting, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long offset = 0;
+                for (Kept kept : run) {
+                    for (long position : kept.positions()) {
+                        int length = Integer.BYTES + kept.records().getInt((int) position);
+                        long todoId = kept.records().getLong((int) position + Integer.BYTES);
+                        for (long copied = 0; copied < length; ) {
+                            copied += kept.segment().channel().transferTo(position + copied, length - copied, target);
+                        }
+                        moved.computeIfAbsent(todoId, id -> new Offsets()).add(pointer(last.id(), offset));
+                        offset += length;
+                    }
+                }
+                target.force(false);
+            }
+            Files.move(compacting, last.path(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            merged = open(last.id());
+        }
+
+        long from = pointer(run.get(0).segment().id(), 0);
+        long to = pointer(last.id() + 1, 0);
+        swap.writeLock().lock();
+        try {
+            for (Kept kept : run) {
+                segments.remove(kept.segment().id());
+            }
+            if (merged != null) {
+                segments.put(merged.id(), merged);
+            }
+            for (Long todoId : index.keySet()) {
+                Offsets replacement = moved.get(todoId);
+                index.computeIfPresent(todoId, (id, offsets) -> {
+                    offsets.replace(from, to, replacement == null ? new long[0] : replacement.toArray());
+                    return offsets.isEmpty() ? null : offsets;
+                });
+            }
+        } finally {
+            swap.writeLock().unlock();
+        }
+        for (Kept kept : run) {
+            close(kept.segment());
+            if (merged == null || kept.segment() != last) {
+                Files.deleteIfExists(kept.segment().path());
+            }
+        }
+        log.info("Compacted {} audit segments up to {} into {} bytes", run.size(), last.path().getFileName(), bytes);
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                append(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                failed.add(batch.size());
+                log.error("Could not write {} audit records", batch.size(), e);
+            } finally {
+                release(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void release(List<Pending> batch) {
+        int reserved = 0;
+        for (Pending pending : batch) {
+            if (pending.reserved()) {
+                reserved++;
+            }
+        }
+        places.release(reserved);
+    }
+
+    private void append(List<Pending> batch) throws IOException {
+        if (writePosition >= segmentBytes) {
+            roll();
+        }
+        int total = 0;
+        for (Pending pending : batch) {
+            total += pending.bytes().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        for (Pending pending : batch) {
+            buffer.put(pending.bytes());
+        }
+        buffer.flip();
+
+        Segment segment = current;
+        long start = writePosition;
+        while (buffer.hasRemaining()) {
+            start += segment.channel().write(buffer, start);
+        }
+        segment.channel().force(false);
+
+        long offset = writePosition;
+        for (Pending pending : batch) {
+            long pointer = pointer(segment.id(), offset);
+            // Atomic with compaction dropping todos whose records all expired
+            index.compute(pending.todoId(), (id, offsets) -> {
+                Offsets added = offsets == null ? new Offsets() : offsets;
+                added.add(pointer);
+                return added;
+            });
+            offset += pending.bytes().length;
+        }
+        writePosition = offset;
+        written.add(batch.size());
+    }
+
+    private void roll() throws IOException {
+        Segment next = open(current.id() + 1);
+        segments.put(next.id(), next);
+        current = next;
+        writePosition = 0;
+    }
+
+    // Indexes every complete record of the segment and returns where the next record goes
+    private long recover(Segment segment) throws IOException {
+        long size = segment.channel().size();
+        long position = 0;
+        if (size > 0) {
+            MappedByteBuffer mapped = segment.channel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (position + HEADER_BYTES <= size) {
+                int length = mapped.getInt((int) position);
+                if (length < HEADER_BYTES - Integer.BYTES || position + Integer.BYTES + length > size) {
+                    break;
+                }
+                long todoId = mapped.getLong((int) position + Integer.BYTES);
+                index.computeIfAbsent(todoId, id -> new Offsets()).add(pointer(segment.id(), position));
+                position += Integer.BYTES + length;
+            }
+        }
+        if (position < size) {
+            log.warn("Truncating {} bytes of incomplete audit records in {}", size - position, segment.path());
+            segment.channel().truncate(position);
+        }
+        return position;
+    }
+
+    private Segment open(long id) throws IOException {
+        Path path = segmentPath(id);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, path, channel);
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", id) + SEGMENT_SUFFIX);
+    }
+
+    private static void close(Segment segment) {
+        try {
+            segment.channel().close();
+        } catch (IOException e) {
+            log.warn("Could not close audit segment {}", segment.path(), e);
+        }
+    }
+
+    private static long pointer(long segmentId, long offset) {
+        return segmentId << OFFSET_BITS | offset;
+    }
+
+    static byte[] encode(long todoId, long epochMillis, AuditChange change, Todo todo) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeLong(todoId);
+            out.writeLong(epochMillis);
+            out.writeByte(change.ordinal());
+            TodoCodec.write(todo, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(0, record.length - Integer.BYTES);
+        return record;
+    }
+
+    private static AuditRecord read(FileChannel channel, long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, length, offset);
+        ByteBuffer body = ByteBuffer.allocate(length.getInt(0));
+        readFully(channel, body, offset + Integer.BYTES);
+        long epochMillis = body.getLong(Long.BYTES);
+        AuditChange change = CHANGES[body.get(Long.BYTES * 2)];
+        int todoStart = HEADER_BYTES - Integer.BYTES;
+        Todo todo = TodoCodec.read(new DataInputStream(
+                new ByteArrayInputStream(body.array(), todoStart, body.capacity() - todoStart)));
+        return new AuditRecord(Instant.ofEpochMilli(epochMillis), change, todo);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of audit segment");
+            }
+        }
+    }
+
+    // Growable list of record pointers, in the order they were written
+    private static final class Offsets {
+        private long[] pointers = new long[4];
+        private int size;
+
+        synchronized void add(long pointer) {
+            if (size == pointers.length) {
+                pointers = Arrays.copyOf(pointers, size * 2);
+            }
+            pointers[size++] = pointer;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(pointers, size);
+        }
+
+        // Replaces the pointers within [from, to) by the given ones, which fall in the same range
+        synchronized void replace(long from, long to, long[] replacement) {
+            int start = 0;
+            while (start < size && pointers[start] < from) {
+                start++;
+            }
+            int end = start;
+            while (end < size && pointers[end] < to) {
+                end++;
+            }
+            int newSize = size - (end - start) + replacement.length;
+            long[] next = newSize <= pointers.length ? pointers : Arrays.copyOf(pointers, newSize);
+            System.arraycopy(pointers, end, next, start + replacement.length, size - end);
+            System.arraycopy(replacement, 0, next, start, replacement.length);
+            pointers = next;
+            size = newSize;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.project.Todo.audit;
+
+import com.project.Todo.entity.Todo;
+
+import java.time.Instant;
+
+/**
+ * One entry of a todo's history: the change and the todo as it was saved.
+ */
+public record AuditRecord(Instant at, AuditChange change, Todo todo) {
+}
@@ -0,0 +1,62 @@
+package com.project.Todo.cache;
+
+/**
+ * Approximate read counts of todo ids in a count-min sketch of 4-bit counters (TinyLFU).
+ * Counters saturate at 15 and are all halved after ten reads per expected entry, so the
+ * counts follow the recent popularity of an id rather than its all-time total.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0x97cb3127L, 0xa5b7bc25L, 0xc2b2ae3dL, 0x27d4eb2fL
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    // 16 counters per long, 4 rows per id
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int size = Integer.highestOneBit(Math.max(16, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+        table = new long[size];
+        counterMask = size * 16 - 1;
+        sampleSize = 10 * Math.max(16, expectedEntries);
+    }
+
+    synchronized void increment(long id) {
+        boolean added = false;
+        for (long seed : SEEDS) {
+            int counter = counterOf(id, seed);
+            int index = counter >>> 4;
+            int shift = (counter & 15) << 2;
+            if (((table[index] >>> shift) & 0xfL) < 15) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions /= 2;
+        }
+    }
+
+    synchronized int frequency(long id) {
+        int frequency = 15;
+        for (long seed : SEEDS) {
+            int counter = counterOf(id, seed);
+            frequency = Math.min(frequency, (int) ((table[counter >>> 4] >>> ((counter & 15) << 2)) & 0xfL));
+        }
+        return frequency;
+    }
+
+    private int counterOf(long id, long seed) {
+        long hash = (id ^ seed) * 0x9e3779b97f4a7c15L;
+        hash ^= hash >>> 29;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 32;
+        return (int) hash & counterMask;
+    }
+}
@@ -0,0 +1,240 @@
+package com.project.Todo.cache;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.entity.TodoCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Warm tier of {@link TodoCache}: todos encoded with {@link TodoCodec} in a direct buffer or a
+ * memory-mapped file, outside the Java heap. The buffer is cut into blocks; a record takes as
+ * many as it needs, chained through a link at the start of each block, and the free blocks
+ * form a chain of their own. Only the index (version, expiry, first block) lives on the heap.
+ * <p>
+ * Entries are kept in a segmented LRU. New entries start in probation and move to the
+ * protected segment when read again; protected entries beyond 80% of the blocks fall back
+ * to probation. When the buffer is full, a candidate is only admitted if the frequency sketch
+ * counted more reads of it than of the entry that would be evicted for it (TinyLFU), so a
+ * burst of one-off reads cannot flush the todos that are read all the time.
+ */
+final class OffHeapTier {
+    static final int BLOCK_SIZE = 64;
+    private static final int LINK = 4;
+    private static final int DATA = BLOCK_SIZE - LINK;
+    private static final int NONE = -1;
+
+    private final ByteBuffer buffer;
+    private final FrequencySketch sketch;
+    private final int blocks;
+    private final int protectedBlocks;
+
+    // Access ordered, the eldest entry is the least recently read
+    private final LinkedHashMap<Long, Slot> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Slot> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private int protectedUsed;
+    private int freeHead;
+    private int freeBlocks;
+
+    private long hits;
+    private long misses;
+    private long admissions;
+    private long rejections;
+    private long evictions;
+
+    private record Slot(long version, long expiresAt, int firstBlock, int length, int blockCount) {
+    }
+
+    record Hit(long version, Todo todo, long expiresAt) {
+    }
+
+    OffHeapTier(ByteBuffer buffer, FrequencySketch sketch) {
+        this.buffer = buffer;
+        this.sketch = sketch;
+        this.blocks = buffer.capacity() / BLOCK_SIZE;
+        this.protectedBlocks = blocks * 8 / 10;
+        reset();
+    }
+
+    /**
+     * A direct buffer of the given size, or a mapping of the given file when one is set. The
+     * file only holds the cache while the instance runs and is truncated on start.
+     */
+    static ByteBuffer allocate(long bytes, String file) throws IOException {
+        int capacity = (int) Math.min(bytes, Integer.MAX_VALUE / BLOCK_SIZE * BLOCK_SIZE);
+        if (file.isBlank()) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        Path path = Path.of(file);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    synchronized Optional<Hit> get(long id, long now) {
+        Slot slot = probation.remove(id);
+        if (slot != null) {
+            protectedSegment.put(id, slot);
+            protectedUsed += slot.blockCount();
+            while (protectedUsed > protectedBlocks) {
+                Map.Entry<Long, Slot> eldest = protectedSegment.entrySet().iterator().next();
+                protectedSegment.remove(eldest.getKey());
+                protectedUsed -= eldest.getValue().blockCount();
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+        } else {
+            slot = protectedSegment.get(id);
+        }
+        if (slot == null || slot.expiresAt() < now) {
+            if (slot != null) {
+                remove(id);
+            }
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(new Hit(slot.version(), TodoCodec.decode(read(slot)), slot.expiresAt()));
+    }
+
+    /**
+     * Stores a todo evicted from the hot tier. Refused when it does not fit, or when room has
+     * to be made and the todo is read less often than the entry that would have to go.
+     */
+    synchronized boolean admit(long id, long version, byte[] record, long expiresAt) {
+        Slot existing = probation.containsKey(id) ? probation.get(id) : protectedSegment.get(id);
+        if (existing != null && existing.version() >= version) {
+            return true;
+        }
+        int needed = (record.length + DATA - 1) / DATA;
+        if (needed > blocks) {
+            rejections++;
+            return false;
+        }
+        if (existing != null) {
+            remove(id);
+        }
+        if (freeBlocks < needed) {
+            long victim = eldest();
+            if (sketch.frequency(id) <= sketch.frequency(victim)) {
+                rejections++;
+                return false;
+            }
+            while (freeBlocks < needed) {
+                remove(eldest());
+                evictions++;
+            }
+        }
+        probation.put(id, new Slot(version, expiresAt, write(record), record.length, needed));
+        admissions++;
+        return true;
+    }
+
+    // Drops the todo unless a newer version than the given one is stored
+    synchronized void invalidate(long id, long version) {
+        Slot slot = probation.containsKey(id) ? probation.get(id) : protectedSegment.get(id);
+        if (slot != null && slot.version() <= version) {
+            remove(id);
+        }
+    }
+
+    synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        protectedUsed = 0;
+        reset();
+    }
+
+    synchronized Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long lookups = hits + misses;
+        metrics.put("size", probation.size() + protectedSegment.size());
+        metrics.put("probation", probation.size());
+        metrics.put("protected", protectedSegment.size());
+        metrics.put("usedBytes", (long) (blocks - freeBlocks) * BLOCK_SIZE);
+        metrics.put("capacityBytes", (long) blocks * BLOCK_SIZE);
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        metrics.put("admissions", admissions);
+        metrics.put("rejections", rejections);
+        metrics.put("evictions", evictions);
+        return metrics;
+    }
+
+    // Probation is evicted first, the protected segment only once probation is empty
+    private long eldest() {
+        Map<Long, Slot> segment = probation.isEmpty() ? protectedSegment : probation;
+        return segment.keySet().iterator().next();
+    }
+
+    private void remove(long id) {
+        Slot slot = probation.remove(id);
+        if (slot == null) {
+            slot = protectedSegment.remove(id);
+            if (slot == null) {
+                return;
+            }
+            protectedUsed -= slot.blockCount();
+        }
+        int last = slot.firstBlock();
+        for (int i = 1; i < slot.blockCount(); i++) {
+            last = link(last);
+        }
+        buffer.putInt(last * BLOCK_SIZE, freeHead);
+        freeHead = slot.firstBlock();
+        freeBlocks += slot.blockCount();
+    }
+
+    // The free chain is already linked, a record takes its first blocks and cuts the chain after them
+    private int write(byte[] record) {
+        int first = freeHead;
+        int block = first;
+        int offset = 0;
+        while (true) {
+            int length = Math.min(DATA, record.length - offset);
+            buffer.put(block * BLOCK_SIZE + LINK, record, offset, length);
+            offset += length;
+            freeBlocks--;
+            int next = link(block);
+            if (offset == record.length) {
+                buffer.putInt(block * BLOCK_SIZE, NONE);
+                freeHead = next;
+                return first;
+            }
+            block = next;
+        }
+    }
+
+    private byte[] read(Slot slot) {
+        byte[] record = new byte[slot.length()];
+        int block = slot.firstBlock();
+        for (int offset = 0; offset < record.length; offset += DATA) {
+            buffer.get(block * BLOCK_SIZE + LINK, record, offset, Math.min(DATA, record.length - offset));
+            block = link(block);
+        }
+        return record;
+    }
+
+    private int link(int block) {
+        return buffer.getInt(block * BLOCK_SIZE);
+    }
+
+    private void reset() {
+        for (int block = 0; block < blocks; block++) {
+            buffer.putInt(block * BLOCK_SIZE, block + 1 < blocks ? block + 1 : NONE);
+        }
+        freeHead = blocks == 0 ? NONE : 0;
+        freeBlocks = blocks;
+    }
+}
@@ -0,0 +1,245 @@
+package com.project.Todo.cache;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.entity.TodoCodec;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.event.TodosRewrittenEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-instance cache of single todo reads. Entries carry the todo version: an invalidation
+ * for version v leaves a tombstone at v, so a read that started before the change cannot put
+ * an older version back, and invalidations arriving late or out of order never remove newer
+ * state. Every entry expires after {@code todo.cache.ttl}, which bounds staleness even when
+ * an invalidation is lost.
+ * <p>
+ * The map is the hot tier: {@code todo.cache.max-size} todos on the heap. When it overflows,
+ * the todos read least often are demoted to the warm tier, {@link OffHeapTier}, which keeps up
+ * to {@code todo.cache.off-heap-size} of encoded todos outside the heap ({@code 0} turns it
+ * off) and admits them by read frequency. A warm hit is promoted back into the hot tier under
+ * the same version rules, and invalidations reach both tiers.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.cache.enabled", havingValue = "true")
+public class TodoCache {
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final FrequencySketch sketch;
+    // Null without an off-heap tier
+    private final OffHeapTier warm;
+
+    private final LongAdder hotHits = new LongAdder();
+    private final LongAdder warmHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleFills = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder demotions = new LongAdder();
+    private final LongAdder clears = new LongAdder();
+
+    // A null todo is a tombstone: the todo changed to this version and has not been read since
+    private record Entry(long version, Todo todo, long expiresAt) {
+    }
+
+    @Autowired
+    public TodoCache(@Value("${todo.cache.max-size:1000}") int maxSize,
+                     @Value("${todo.cache.ttl:PT5M}") Duration ttl,
+                     @Value("${todo.cache.off-heap-size:64MB}") DataSize offHeapSize,
+                     @Value("${todo.cache.off-heap-file:}") String offHeapFile) throws IOException {
+        this(maxSize, ttl, offHeapSize.toBytes() < OffHeapTier.BLOCK_SIZE
+                ? null : OffHeapTier.allocate(offHeapSize.toBytes(), offHeapFile));
+    }
+
+    public TodoCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, null);
+    }
+
+    // The warm tier lives in the given buffer, there is none when it is null
+    public TodoCache(int maxSize, Duration ttl, ByteBuffer offHeap) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        // Typical encoded todos take two blocks
+        int warmEntries = offHeap == null ? 0 : offHeap.capacity() / (2 * OffHeapTier.BLOCK_SIZE);
+        this.sketch = new FrequencySketch(maxSize + warmEntries);
+        this.warm = offHeap == null ? null : new OffHeapTier(offHeap, sketch);
+    }
+
+    /**
+     * A copy of the cached todo, empty when it is not cached, expired or was invalidated.
+     */
+    public Optional<Todo> get(long id) {
+        sketch.increment(id);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(id);
+        if (entry != null && entry.todo() != null && entry.expiresAt() >= now) {
+            hotHits.increment();
+            return Optional.of(entry.todo().snapshot());
+        }
+        Optional<OffHeapTier.Hit> hit = warm == null ? Optional.empty() : warm.get(id, now);
+        if (hit.isPresent()) {
+            // Keeps the expiry of the original read, and a tombstone of a newer version
+            Entry promoted = new Entry(hit.get().version(), hit.get().todo(), hit.get().expiresAt());
+            Entry stored = entries.compute(id, (key, current) ->
+                    current != null && current.version() > promoted.version() ? current : promoted);
+            if (stored == promoted) {
+                warmHits.increment();
+                if (entries.size() > maxSize) {
+                    evict();
+                }
+                return Optional.of(promoted.todo().snapshot());
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    // Ignored when a newer version of the todo was already seen
+    public void put(Todo todo) {
+        long version = versionOf(todo);
+        Todo copy = todo.snapshot();
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        Entry stored = entries.compute(todo.getId(), (id, entry) ->
+                entry != null && entry.version() > version ? entry : new Entry(version, copy, expiresAt));
+        if (stored.todo() != copy) {
+            staleFills.increment();
+        } else if (warm != null) {
+            warm.invalidate(todo.getId(), version - 1);
+        }
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void invalidate(long id, long version) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        entries.compute(id, (key, entry) ->
+                entry != null && entry.version() > version ? entry : new Entry(version, null, expiresAt));
+        if (warm != null) {
+            warm.invalidate(id, version);
+        }
+        invalidations.increment();
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    // The todo changed without a new version, whatever is cached for it goes
+    public void discard(long id) {
+        entries.remove(id);
+        if (warm != null) {
+            warm.invalidate(id, Long.MAX_VALUE);
+        }
+        invalidations.increment();
+    }
+
+    // When invalidations may have been missed, e.g. a peer's datagrams were lost
+    public void clear() {
+        entries.clear();
+        if (warm != null) {
+            warm.clear();
+        }
+        clears.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        invalidate(event.id(), versionOf(event.current()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosRewritten(TodosRewrittenEvent event) {
+        if (event.allActive()) {
+            clear();
+            return;
+        }
+        for (long id : event.ids()) {
+            discard(id);
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long hitCount = hotHits.sum() + warmHits.sum();
+        long lookups = hitCount + misses.sum();
+        metrics.put("hits", hitCount);
+        metrics.put("misses", lookups - hitCount);
+        metrics.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        metrics.put("staleFills", staleFills.sum());
+        metrics.put("invalidations", invalidations.sum());
+        metrics.put("clears", clears.sum());
+        Map<String, Object> hot = new LinkedHashMap<>();
+        hot.put("size", entries.size());
+        hot.put("hits", hotHits.sum());
+        hot.put("evictions", evictions.sum());
+        hot.put("demotions", demotions.sum());
+        metrics.put("hot", hot);
+        if (warm != null) {
+            metrics.put("warm", warm.metrics());
+        }
+        return metrics;
+    }
+
+    public static long versionOf(Todo todo) {
+        return todo.getVersion() == null ? 0 : todo.getVersion();
+    }
+
+    // Expired entries first, then the least read ones until a tenth of the room is free again
+    private void evict() {
+        long now = System.currentTimeMillis();
+        int target = maxSize - maxSize / 10;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && entries.size() > target) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt() < now) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        if (entries.size() <= target) {
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(entries.size());
+        entries.forEach((id, entry) -> candidates.add(new Candidate(id, entry, sketch.frequency(id))));
+        candidates.sort(Comparator.comparingInt(Candidate::frequency));
+        for (Candidate candidate : candidates) {
+            if (entries.size() <= target) {
+                break;
+            }
+            // Demoted while the entry is locked, an invalidation either comes before and finds nothing to
+            // demote, or after and finds the todo in the warm tier
+            entries.computeIfPresent(candidate.id(), (id, entry) -> {
+                if (entry != candidate.entry()) {
+                    return entry;
+                }
+                if (warm != null && entry.todo() != null
+                        && warm.admit(id, entry.version(), TodoCodec.encode(entry.todo()), entry.expiresAt())) {
+                    demotions.increment();
+                }
+                evictions.increment();
+                return null;
+            });
+        }
+    }
+
+    private record Candidate(long id, Entry entry, int frequency) {
+    }
+}
@@ -0,0 +1,298 @@
+package com.project.Todo.cluster;
+
+import com.project.Todo.cache.TodoCache;
+import com.project.Todo.event.PeerChangedEvent;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.event.TodosRewrittenEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the {@link TodoCache}s of several instances coherent. Every committed change is sent
+ * to the peers as a (todo id, version) invalidation over UDP, batched into datagrams of up to
+ * {@value #MAX_ENTRIES} entries. Datagrams are numbered per sender and a heartbeat goes out
+ * when there is nothing to send, so a receiver notices a lost datagram within one heartbeat
+ * and clears its whole cache instead of serving what the lost invalidations covered. Senders
+ * number from 1, so a peer first heard at a later sequence also counts as a gap. Peers not
+ * heard for {@value #STALE_HEARTBEATS} heartbeats are forgotten; one that was only partitioned
+ * comes back with a gap.
+ * Invalidations carry versions, so duplicates and reordering are harmless. Todos rewritten
+ * without a new version (subtask counters) go out with version {@value #EVICT} and are dropped
+ * whatever version is cached; a respaced list skips a sequence number so peers clear their caches.
+ * The ids received are also published as a {@link PeerChangedEvent} for the other local state
+ * built from the database.
+ *
+ * <pre>
+ * [int magic][long node][long sequence][short count] count * ([long todo id][long version])
+ * </pre>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.cluster.enabled", havingValue = "true")
+public class ClusterInvalidator {
+    private static final int MAGIC = 0x54444f49;
+    private static final int HEADER = 4 + 8 + 8 + 2;
+    static final int MAX_ENTRIES = (1400 - HEADER) / 16;
+    static final long EVICT = -1;
+    static final int STALE_HEARTBEATS = 10;
+
+    private final TodoCache todoCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int port;
+    private final List<InetSocketAddress> peers = new ArrayList<>();
+    private final long heartbeatMillis;
+    private final long node = ThreadLocalRandom.current().nextLong();
+    private final BlockingQueue<long[]> outgoing;
+    // Last sequence received from each peer node; a peer restarting comes back as a new node.
+    // Written by the receiver thread only.
+    private final Map<Long, Peer> sequences = new ConcurrentHashMap<>();
+    private long lastPruneMillis;
+    private long sequence;
+    private DatagramChannel channel;
+    private Thread sender;
+    private Thread receiver;
+    private volatile boolean running;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder gaps = new LongAdder();
+
+    private static final class Peer {
+        long sequence;
+        long heardMillis;
+    }
+
+    public ClusterInvalidator(TodoCache todoCache,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${todo.cluster.port:7600}") int port,
+                              @Value("${todo.cluster.peers:}") List<String> peers,
+                              @Value("${todo.cluster.heartbeat:PT1S}") Duration heartbeat,
+                              @Value("${todo.cluster.queue-size:65536}") int queueSize) {
+        this.todoCache = todoCache;
+        this.eventPublisher = eventPublisher;
+        this.port = port;
+        for (String peer : peers) {
+            int colon = peer.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("todo.cluster.peers must be host:port, was " + peer);
+            }
+            this.peers.add(new InetSocketAddress(peer.substring(0, colon).trim(), Integer.parseInt(peer.substring(colon + 1).trim())));
+        }
+        this.heartbeatMillis = heartbeat.toMillis();
+        this.outgoing = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(port));
+        running = true;
+        sender = new Thread(this::sendLoop, "cluster-sender");
+        receiver = new Thread(this::receiveLoop, "cluster-receiver");
+        sender.setDaemon(true);
+        receiver.setDaemon(true);
+        sender.start();
+        receiver.start();
+        log.info("Cluster invalidations on port {} to {}", localPort(), peers);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        sender.join(heartbeatMillis * 2);
+        channel.close();
+        receiver.join(heartbeatMillis * 2);
+    }
+
+    public int localPort() {
+        try {
+            return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return port;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        send(event.id(), TodoCache.versionOf(event.current()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosRewritten(TodosRewrittenEvent event) {
+        if (event.allActive()) {
+            skipSequence();
+            return;
+        }
+        for (long id : event.ids()) {
+            send(id, EVICT);
+        }
+    }
+
+    private void send(long id, long version) {
+        if (!outgoing.offer(new long[]{id, version})) {
+            // Peers cannot be told which todo changed; skipping a sequence number makes them clear their caches
+            skipSequence();
+            dropped.increment();
+        }
+    }
+
+    private synchronized void skipSequence() {
+        sequence++;
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("node", Long.toHexString(node));
+        metrics.put("port", localPort());
+        metrics.put("peers", peers.stream().map(InetSocketAddress::toString).toList());
+        metrics.put("queued", outgoing.size());
+        metrics.put("sentDatagrams", sent.sum());
+        metrics.put("receivedDatagrams", received.sum());
+        metrics.put("appliedInvalidations", applied.sum());
+        metrics.put("droppedInvalidations", dropped.sum());
+        metrics.put("gaps", gaps.sum());
+        metrics.put("knownPeerNodes", sequences.size());
+        return metrics;
+    }
+
+    private void sendLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + MAX_ENTRIES * 16);
+        List<long[]> batch = new ArrayList<>(MAX_ENTRIES);
+        while (running) {
+            try {
+                long[] first = outgoing.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    outgoing.drainTo(batch, MAX_ENTRIES - 1);
+                }
+                send(buffer, batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.warn("Could not send cluster invalidations", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(ByteBuffer buffer, List<long[]> batch) throws IOException {
+        buffer.clear();
+        buffer.putInt(MAGIC).putLong(node);
+        synchronized (this) {
+            buffer.putLong(++sequence);
+        }
+        buffer.putShort((short) batch.size());
+        for (long[] invalidation : batch) {
+            buffer.putLong(invalidation[0]).putLong(invalidation[1]);
+        }
+        buffer.flip();
+        for (InetSocketAddress peer : peers) {
+            channel.send(buffer.duplicate(), peer);
+            sent.increment();
+        }
+    }
+
+    private void receiveLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + MAX_ENTRIES * 16);
+        while (running) {
+            try {
+                buffer.clear();
+                SocketAddress from = channel.receive(buffer);
+                if (from == null) {
+                    continue;
+                }
+                buffer.flip();
+                apply(buffer);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not read cluster invalidation", e);
+            }
+        }
+    }
+
+    // Forgets peers that stopped sending, at most once per heartbeat
+    private void prune(long nowMillis) {
+        if (nowMillis - lastPruneMillis < heartbeatMillis) {
+            return;
+        }
+        lastPruneMillis = nowMillis;
+        long staleBefore = nowMillis - STALE_HEARTBEATS * heartbeatMillis;
+        sequences.values().removeIf(known -> known.heardMillis < staleBefore);
+    }
+
+    void apply(ByteBuffer buffer) {
+        apply(buffer, System.currentTimeMillis());
+    }
+
+    void apply(ByteBuffer buffer, long nowMillis) {
+        if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC) {
+            return;
+        }
+        long peer = buffer.getLong();
+        long peerSequence = buffer.getLong();
+        int count = buffer.getShort();
+        if (peer == node || buffer.remaining() < count * 16) {
+            return;
+        }
+        received.increment();
+        prune(nowMillis);
+        // A late datagram still applies, its invalidations are versioned; only the newest sequence counts
+        Peer known = sequences.get(peer);
+        long last = known == null ? 0 : known.sequence;
+        if (peerSequence > last + 1) {
+            gaps.increment();
+            todoCache.clear();
+            eventPublisher.publishEvent(PeerChangedEvent.UNKNOWN);
+        }
+        if (known == null) {
+            known = new Peer();
+            sequences.put(peer, known);
+        }
+        known.sequence = Math.max(last, peerSequence);
+        known.heardMillis = nowMillis;
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = buffer.getLong();
+            long version = buffer.getLong();
+            if (version == EVICT) {
+                todoCache.discard(id);
+            } else {
+                todoCache.invalidate(id, version);
+            }
+            ids.add(id);
+            applied.increment();
+        }
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new PeerChangedEvent(ids));
+        }
+    }
+}
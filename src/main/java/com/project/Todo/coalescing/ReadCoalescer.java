@@ -0,0 +1,186 @@
+package com.project.Todo.coalescing;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.event.TodosRewrittenEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight reads: while a query for a todo or for the active list is running, identical
+ * reads wait for its result instead of sending the same query again.
+ * <p>
+ * A read only joins a query that was still in flight when it arrived, nothing is kept once the
+ * query returns. Every committed change drops the queries in flight, so a read that starts
+ * after a write was acknowledged runs a query of its own and sees it. Reads inside a transaction
+ * always query themselves, they may depend on the transaction's own uncommitted writes. A waiting
+ * read gives up after {@code todo.coalescing.max-wait} and queries itself, and when the shared
+ * query fails, every read waiting for it fails the same way.
+ * <p>
+ * Callers never share objects: when a result was shared, everyone gets a copy of the todos.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class ReadCoalescer {
+    private static final String ACTIVE_LIST = "active";
+
+    private final Map<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final long maxWaitMillis;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder coalescedLists = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // A query in flight and the reads waiting for it
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        // -1 once the query returned, later reads cannot join anymore
+        final AtomicInteger followers = new AtomicInteger();
+
+        boolean join() {
+            for (int count = followers.get(); count >= 0; count = followers.get()) {
+                if (followers.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public ReadCoalescer(@Value("${todo.coalescing.max-wait:PT1S}") Duration maxWait) {
+        this.maxWaitMillis = maxWait.toMillis();
+    }
+
+    public Optional<Todo> todo(long id, Supplier<Optional<Todo>> query) {
+        return read(id, query, todo -> todo.map(Todo::snapshot));
+    }
+
+    public List<Todo> activeTodos(Supplier<List<Todo>> query) {
+        return read(ACTIVE_LIST, query, todos -> {
+            List<Todo> copy = new ArrayList<>(todos.size());
+            for (Todo todo : todos) {
+                copy.add(todo.snapshot());
+            }
+            return copy;
+        });
+    }
+
+    // Writes may change any todo and the list (subtask counts of ancestors, positions), so all queries are dropped
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        dropFlights();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosRewritten(TodosRewrittenEvent event) {
+        dropFlights();
+    }
+
+    private void dropFlights() {
+        if (!flights.isEmpty()) {
+            dropped.add(flights.size());
+            flights.clear();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long queryCount = queries.sum();
+        long saved = coalesced.sum();
+        metrics.put("inFlight", flights.size());
+        metrics.put("queries", queryCount);
+        metrics.put("savedQueries", saved);
+        metrics.put("savedListQueries", coalescedLists.sum());
+        metrics.put("savedRatio", queryCount + saved == 0 ? 0.0 : (double) saved / (queryCount + saved));
+        metrics.put("timeouts", timeouts.sum());
+        metrics.put("bypassed", bypassed.sum());
+        metrics.put("droppedByWrites", dropped.sum());
+        return metrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T read(Object key, Supplier<T> query, UnaryOperator<T> copy) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            bypassed.increment();
+            return query.get();
+        }
+        while (true) {
+            Flight flight = new Flight();
+            Flight current = flights.putIfAbsent(key, flight);
+            if (current == null) {
+                return lead(key, flight, query, copy);
+            }
+            if (current.join()) {
+                return follow(key, (CompletableFuture<T>) (CompletableFuture<?>) current.result, query, copy);
+            }
+            // Returned meanwhile, its leader is about to remove it
+            flights.remove(key, current);
+        }
+    }
+
+    private <T> T lead(Object key, Flight flight, Supplier<T> query, UnaryOperator<T> copy) {
+        queries.increment();
+        T result;
+        try {
+            result = query.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.followers.set(-1);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        flights.remove(key, flight);
+        boolean shared = flight.followers.getAndSet(-1) > 0;
+        flight.result.complete(result);
+        return shared ? copy.apply(result) : result;
+    }
+
+    private <T> T follow(Object key, CompletableFuture<T> flight, Supplier<T> query, UnaryOperator<T> copy) {
+        T result;
+        try {
+            result = flight.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            queries.increment();
+            return query.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced read", e);
+        }
+        coalesced.increment();
+        if (ACTIVE_LIST.equals(key)) {
+            coalescedLists.increment();
+        }
+        return copy.apply(result);
+    }
+}
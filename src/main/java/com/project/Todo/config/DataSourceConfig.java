@@ -0,0 +1,27 @@
+package com.project.Todo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Attaches {@link PoolMetrics} to the Hikari pool before it is started.
+     */
+    @Bean
+    public static BeanPostProcessor poolMetricsPostProcessor(ObjectProvider<PoolMetrics> poolMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && dataSource.getMetricsTrackerFactory() == null) {
+                    dataSource.setMetricsTrackerFactory(poolMetrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.project.Todo.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "server.http2.enabled", havingValue = "true")
+public class Http2Config {
+
+    /**
+     * Spring Boot only switches HTTP/2 on; the stream limit and idle timeout of multiplexed
+     * connections are Tomcat defaults (100 streams, 20 seconds) unless set here. Compression
+     * settings are applied to HTTP/2 by Spring Boot as well.
+     */
+    @Bean
+    public TomcatConnectorCustomizer http2ConnectorCustomizer(
+            @Value("${todo.http2.max-concurrent-streams:256}") long maxConcurrentStreams,
+            @Value("${todo.http2.keep-alive-timeout:PT30S}") Duration keepAliveTimeout) {
+        return connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(maxConcurrentStreams);
+                    http2.setMaxConcurrentStreamExecution((int) maxConcurrentStreams);
+                    http2.setKeepAliveTimeout(keepAliveTimeout.toMillis());
+                }
+            }
+        };
+    }
+}
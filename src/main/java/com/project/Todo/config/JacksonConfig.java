@@ -0,0 +1,42 @@
+package com.project.Todo.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.project.Todo.dto.TodoJsonMixin;
+import com.project.Todo.entity.Todo;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson modules picked up by Spring Boot's ObjectMapper. Blackbird replaces reflective
+ * getter calls with generated lambdas, so property writers are resolved once per type.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Module todoJsonModule() {
+        SimpleModule module = new SimpleModule("todo-json");
+        module.setMixInAnnotation(Todo.class, TodoJsonMixin.class);
+        return module;
+    }
+
+    /**
+     * Answers requests with {@code Accept: application/cbor} (and reads CBOR bodies) using the
+     * same modules and mix-ins as JSON. It takes the place of Spring MVC's own CBOR converter,
+     * which comes after JSON, so JSON stays the default.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,85 @@
+package com.project.Todo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.SharedCacheMode;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache (todo.l2-cache.enabled) with Caffeine as the local JCache
+ * provider. {@link com.project.Todo.entity.Todo} is cached read-write in the {@value #TODO_REGION}
+ * region, and the active list query in {@value #ACTIVE_LIST_REGION}; any write to the todo table
+ * invalidates cached query results through the update timestamps region.
+ * <p>
+ * Regions are created here, bounded by {@code todo.l2-cache.max-size} entries and expiring
+ * {@code todo.l2-cache.ttl} after the write. The cache is per instance: with several instances a
+ * todo changed elsewhere may be served stale for up to the TTL.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.l2-cache.enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+    public static final String TODO_REGION = "todo";
+    public static final String ACTIVE_LIST_REGION = "todo-active-list";
+
+    // Results of queries without a region of their own
+    private static final long QUERY_RESULTS_MAX_SIZE = 1024;
+    // One result per list order, kept small
+    private static final long ACTIVE_LIST_MAX_SIZE = 16;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${todo.l2-cache.max-size:10000}") long maxSize,
+                                                @Value("${todo.l2-cache.ttl:PT10M}") Duration ttl) {
+        // A manager of its own per application context, so test contexts do not share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("todo-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(TODO_REGION, region(maxSize, ttl));
+        cacheManager.createCache(ACTIVE_LIST_REGION, region(ACTIVE_LIST_MAX_SIZE, ttl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(QUERY_RESULTS_MAX_SIZE, ttl));
+        // One entry per table; must outlive every cached query result, so it is neither bounded nor expired
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(null, null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            // Every region is created above, a misspelled one fails at startup
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            // Hit, miss and put counts per region for GET /api/diagnostics/
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(Long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate caches immutable disassembled state, copying it on every access would be wasted
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (maxSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
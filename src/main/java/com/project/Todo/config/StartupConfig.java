@@ -0,0 +1,27 @@
+package com.project.Todo.config;
+
+import com.project.Todo.controller.TodoAPI;
+import com.project.Todo.service.TodoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * With spring.main.lazy-initialization=true (faststart profile) everything else, such as
+     * the OpenAPI docs, is created on first use. The request path stays eager so the first
+     * request does not pay for connecting to the database or migrating the schema.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, FlywayMigrationInitializer.class,
+                EntityManagerFactory.class, AbstractEntityManagerFactoryBean.class, TodoService.class, TodoAPI.class);
+    }
+}
@@ -0,0 +1,25 @@
+package com.project.Todo.controller;
+
+import com.project.Todo.service.DiagnosticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/diagnostics/")
+public class DiagnosticsAPI {
+    private final DiagnosticsService diagnosticsService;
+
+    @Autowired
+    public DiagnosticsAPI(DiagnosticsService diagnosticsService) {
+        this.diagnosticsService = diagnosticsService;
+    }
+
+    @GetMapping
+    public ResponseEntity getDiagnostics()
+    {
+        return ResponseEntity.ok(diagnosticsService.getDiagnostics());
+    }
+}
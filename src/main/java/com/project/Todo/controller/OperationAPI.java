@@ -0,0 +1,29 @@
+package com.project.Todo.controller;
+
+import com.project.Todo.exception.NotFoundException;
+import com.project.Todo.operation.OperationQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/todo/operations")
+@ConditionalOnProperty(name = "todo.async.enabled", havingValue = "true")
+public class OperationAPI {
+    private final OperationQueue operationQueue;
+
+    @Autowired
+    public OperationAPI(OperationQueue operationQueue) {
+        this.operationQueue = operationQueue;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity getOperation(@PathVariable String id)
+    {
+        return ResponseEntity.ok(operationQueue.find(id).orElseThrow(() -> NotFoundException.NOT_FOUND));
+    }
+}
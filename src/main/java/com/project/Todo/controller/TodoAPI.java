@@ -1,51 +1,229 @@
 package com.project.Todo.controller;
 
+import com.project.Todo.dto.MoveDTO;
+import com.project.Todo.dto.ParentDTO;
 import com.project.Todo.dto.TodoDTO;
 import com.project.Todo.entity.Todo;
+import com.project.Todo.guard.StatementBudget;
+import com.project.Todo.operation.OperationQueue;
 import com.project.Todo.service.TodoService;
+import com.project.Todo.tag.TagFilter;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/todo/")
 public class TodoAPI {
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final int MAX_BATCH = 1000;
+
     private final TodoService todoService;
 
+    // Absent unless todo.async.enabled is set, mutations then always run on the request thread
+    @Autowired(required = false)
+    OperationQueue operationQueue;
+
     @Autowired
     public TodoAPI(TodoService todoService) {
         this.todoService = todoService;
     }
 
+    // Only from or only to is refused, with both the request goes to getAgenda
     @GetMapping
-    public ResponseEntity getTodo()
+    @StatementBudget(1)
+    public ResponseEntity getTodo(@RequestParam(required = false) Instant from,
+                                  @RequestParam(required = false) Instant to,
+                                  @RequestParam(defaultValue = "1000") int limit)
+    {
+        if (from == null && to == null) {
+            return ResponseEntity.ok(todoService.getAll());
+        }
+        return getAgenda(from, to, limit);
+    }
+
+    // The todos due in [from, to), including expanded occurrences of recurring todos
+    @GetMapping(params = {"from", "to"})
+    @StatementBudget(3)
+    public ResponseEntity getAgenda(@RequestParam Instant from, @RequestParam Instant to,
+                                    @RequestParam(defaultValue = "1000") int limit)
     {
-        return ResponseEntity.ok(todoService.getAll());
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from and to must both be given, from before to");
+        }
+        return ResponseEntity.ok(todoService.getAgenda(from, to, limitOf(limit)));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity getStats()
+    {
+        return ResponseEntity.ok(todoService.getStats());
+    }
+
+    @GetMapping("/filter")
+    @StatementBudget(1)
+    public ResponseEntity filterTodo(@RequestParam(required = false) Set<String> all,
+                                     @RequestParam(required = false) Set<String> any,
+                                     @RequestParam(required = false) Set<String> none,
+                                     @RequestParam(required = false) Boolean completed,
+                                     @RequestParam(defaultValue = "1000") int limit)
+    {
+        TagFilter filter = new TagFilter(all, any, none, completed);
+        return ResponseEntity.ok(todoService.filterTodos(filter, limitOf(limit)));
+    }
+
+    @GetMapping("/{id}")
+    @StatementBudget(1)
+    public ResponseEntity getTodoById(@PathVariable Long id)
+    {
+        return withETag(todoService.getTodo(id));
+    }
+
+    @GetMapping("/{id}/subtree")
+    @StatementBudget(2)
+    public ResponseEntity getSubtree(@PathVariable Long id)
+    {
+        return ResponseEntity.ok(todoService.getSubtree(id));
     }
 
     @PostMapping
-    public ResponseEntity createTodo(@Valid @RequestBody TodoDTO todoDTO)
+    public ResponseEntity createTodo(@Valid @RequestBody TodoDTO todoDTO,
+                                     @RequestHeader(value = PREFER, required = false) String prefer)
+    {
+        return mutate(null, prefer, () -> todoService.createTodo(todoDTO));
+    }
+
+    // Per todo an insert (IDENTITY keys are not batched), and for subtasks the parent's read and counter update
+    @PostMapping("/batch")
+    @StatementBudget(value = 1 + 3 * MAX_BATCH, repeats = MAX_BATCH)
+    public ResponseEntity createTodos(@RequestBody @Size(min = 1, max = MAX_BATCH) List<@Valid TodoDTO> todoDTOs)
     {
-        Todo todo=todoService.createTodo(todoDTO);
-        return ResponseEntity.ok(todo);
+        return ResponseEntity.ok(todoService.createTodos(todoDTOs));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity deleteTodo(@PathVariable Long id) {
-        Todo todo=todoService.deleteTodo(id);
-        return ResponseEntity.ok(todo);
+    public ResponseEntity deleteTodo(@PathVariable Long id,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                     @RequestHeader(value = PREFER, required = false) String prefer) {
+        Long version = expectedVersion(ifMatch);
+        return mutate(id, prefer, () -> version == null ? todoService.deleteTodo(id) : todoService.deleteTodo(id, version));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity updateTodo(@PathVariable Long id, @Valid @RequestBody TodoDTO todoDTO) {
-        Todo todo = todoService.updateTodoById(id, todoDTO);
-        return ResponseEntity.ok(todo);
+    public ResponseEntity updateTodo(@PathVariable Long id, @Valid @RequestBody TodoDTO todoDTO,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                     @RequestHeader(value = PREFER, required = false) String prefer) {
+        Long version = expectedVersion(ifMatch);
+        return mutate(id, prefer, () -> version == null ? todoService.updateTodoById(id, todoDTO) : todoService.updateTodoById(id, todoDTO, version));
     }
 
     @PutMapping("/setcomplete/{id}")
-    public ResponseEntity updateTodoComplete(@PathVariable Long id) {
-        Todo todo = todoService.updateTodoComplete(id);
-        return ResponseEntity.ok(todo);
+    public ResponseEntity updateTodoComplete(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestHeader(value = PREFER, required = false) String prefer) {
+        Long version = expectedVersion(ifMatch);
+        return mutate(id, prefer, () -> version == null ? todoService.updateTodoComplete(id) : todoService.updateTodoComplete(id, version));
+    }
+
+    @PutMapping("/{id}/move")
+    public ResponseEntity moveTodo(@PathVariable Long id, @RequestBody MoveDTO moveDTO) {
+        Todo todo = todoService.moveTodo(id, moveDTO);
+        return withETag(todo);
+    }
+
+    @PutMapping("/{id}/parent")
+    public ResponseEntity moveSubtree(@PathVariable Long id, @RequestBody ParentDTO parentDTO) {
+        Todo todo = todoService.moveSubtree(id, parentDTO);
+        return withETag(todo);
+    }
+
+    // Stores an occurrence of a recurring todo, it can then be changed through the usual endpoints
+    @PostMapping("/{id}/occurrences/{at}")
+    public ResponseEntity materializeOccurrence(@PathVariable Long id, @PathVariable Instant at) {
+        Todo todo = todoService.materializeOccurrence(id, at);
+        return withETag(todo);
+    }
+
+    @PutMapping("/{id}/occurrences/{at}/setcomplete")
+    public ResponseEntity updateOccurrenceComplete(@PathVariable Long id, @PathVariable Instant at) {
+        Todo todo = todoService.updateOccurrenceComplete(id, at);
+        return withETag(todo);
+    }
+
+    @DeleteMapping("/{id}/occurrences/{at}")
+    public ResponseEntity deleteOccurrence(@PathVariable Long id, @PathVariable Instant at) {
+        Todo todo = todoService.deleteOccurrence(id, at);
+        return withETag(todo);
+    }
+
+    /**
+     * Runs the mutation, or, when asked with {@code Prefer: respond-async} and async processing
+     * is enabled, queues it and answers 202 with the operation to poll for the outcome.
+     */
+    private ResponseEntity mutate(Long id, String prefer, Supplier<Todo> mutation) {
+        if (operationQueue == null || !respondAsync(prefer)) {
+            return withETag(mutation.get());
+        }
+        return operationQueue.submit(id, mutation)
+                .<ResponseEntity>map(operation -> ResponseEntity.accepted()
+                        .location(URI.create("/api/todo/operations/" + operation.id()))
+                        .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                        .body(operation))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    private static boolean respondAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.trim().equalsIgnoreCase(RESPOND_ASYNC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int limitOf(int limit) {
+        return Math.max(0, Math.min(limit, 10000));
+    }
+
+    // The todo version is the entity tag: clients send it back in If-Match to update conditionally
+    private static ResponseEntity withETag(Todo todo) {
+        if (todo == null || todo.getVersion() == null) {
+            return ResponseEntity.ok(todo);
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(todo.getVersion())).body(todo);
+    }
+
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must be a todo version");
+        }
     }
 }
@@ -0,0 +1,26 @@
+package com.project.Todo.controller;
+
+import com.project.Todo.audit.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/todo/")
+public class TodoHistoryAPI {
+    private final AuditLog auditLog;
+
+    @Autowired
+    public TodoHistoryAPI(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity getHistory(@PathVariable Long id)
+    {
+        return ResponseEntity.ok(auditLog.history(id));
+    }
+}
@@ -0,0 +1,11 @@
+package com.project.Todo.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class MoveDTO {
+    // Id of the todo to place this one after, null moves it to the top of the list
+    private Long afterId;
+}
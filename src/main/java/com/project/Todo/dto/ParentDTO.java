@@ -0,0 +1,11 @@
+package com.project.Todo.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ParentDTO {
+    // Id of the new parent todo, null makes the todo a top-level todo
+    private Long parentId;
+}
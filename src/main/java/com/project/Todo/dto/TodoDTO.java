@@ -6,6 +6,9 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Instant;
+import java.util.Set;
+
 @Getter
 @Setter
 public class TodoDTO {
@@ -14,5 +17,18 @@ public class TodoDTO {
     @Pattern(regexp = "^[0-9A-Za-z\\s.,]*$", message = "Title todo must not contain special characters")
     private String title;
 
+    private Instant dueAt;
+
+    private Instant remindAt;
+
+    @Size(max = 16, message = "A todo can have at most 16 tags")
+    private Set<@Pattern(regexp = "^[0-9A-Za-z_-]{1,32}$", message = "Tags must be 1 to 32 letters, digits, '-' or '_'") String> tags;
+
+    // Cron expression (e.g. "0 0 9 * * MON-FRI" or "@weekly"), makes the todo a recurring template starting at dueAt
+    @Size(max = 120, message = "Recurrence must not exceed 120 characters")
+    private String recurrence;
+
+    // Only used on create, existing todos change parent through PUT /api/todo/{id}/parent
+    private Long parentId;
 
 }
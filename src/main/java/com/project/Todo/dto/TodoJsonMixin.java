@@ -0,0 +1,17 @@
+package com.project.Todo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Response shape of {@link com.project.Todo.entity.Todo}, applied as a Jackson mix-in so the
+ * entity stays free of web concerns. The soft-delete {@code status} flag is internal and is
+ * always {@code true} on listed items, so it is left out of every response, as is the
+ * materialized {@code path} of subtasks (clients get {@code parentId}).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(value = {"status", "path"}, allowSetters = true)
+@JsonPropertyOrder({"id", "title", "completed"})
+public abstract class TodoJsonMixin {
+}
@@ -0,0 +1,19 @@
+package com.project.Todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class TodoStatsDTO {
+    private long total;
+    // Not deleted and not completed
+    private long active;
+    // Not deleted and completed
+    private long completed;
+    private long deleted;
+    // Not deleted todos per tag
+    private Map<String, Integer> tags;
+}
@@ -0,0 +1,28 @@
+package com.project.Todo.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Stores the tags of a todo as one comma separated column, so reading todos never
+ * needs a join or a second query per row.
+ */
+@Converter
+public class TagSetConverter implements AttributeConverter<Set<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Set<String> tags) {
+        return tags == null || tags.isEmpty() ? null : String.join(",", tags);
+    }
+
+    @Override
+    public Set<String> convertToEntityAttribute(String column) {
+        return column == null || column.isEmpty()
+                ? new LinkedHashSet<>()
+                : new LinkedHashSet<>(Arrays.asList(column.split(",")));
+    }
+}
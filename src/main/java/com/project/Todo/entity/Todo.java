@@ -1,23 +1,37 @@
 package com.project.Todo.entity;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todo")
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 public class Todo {
+    public static final String ROOT_PATH = "/";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,4 +44,100 @@ public class Todo {
     private boolean completed;
 
     private boolean status;
+
+    /**
+     * Sort key of the todo in the user-defined order. Keys are spaced apart so a move
+     * only rewrites the moved row; see {@link com.project.Todo.service.TodoService#moveTodo}.
+     */
+    private long position;
+
+    private Instant dueAt;
+
+    private Instant remindAt;
+
+    @Convert(converter = TagSetConverter.class)
+    @Column(length = 600)
+    private Set<String> tags = new LinkedHashSet<>();
+
+    // Parent todo, null for top-level todos
+    private Long parentId;
+
+    /**
+     * Materialized path: ids of all ancestors, root first, e.g. "/1/5/" for a child of 5
+     * under 1. A whole subtree is one range scan on the path index.
+     */
+    @Column(length = 1024)
+    private String path = ROOT_PATH;
+
+    // Active descendants and how many of them are completed, only written through TodoStore#adjustSubtasks
+    @Column(insertable = false, updatable = false)
+    private int subtasks;
+
+    @Column(insertable = false, updatable = false)
+    private int completedSubtasks;
+
+    // Cron expression of a recurring todo (template), occurrences start at dueAt and are expanded on read
+    @Column(length = 120)
+    private String recurrence;
+
+    // Template and time of a materialized occurrence, set once an occurrence is completed or edited
+    private Long templateId;
+
+    private Instant occurrenceAt;
+
+    // Optimistic lock, sent to clients as ETag and checked against If-Match
+    @Version
+    private Long version;
+
+    public Todo(Long id, String title, boolean completed, boolean status) {
+        this.id = id;
+        this.title = title;
+        this.completed = completed;
+        this.status = status;
+    }
+
+    /**
+     * Detached copy of the current field values, used to describe a change to listeners.
+     */
+    public Todo snapshot() {
+        Todo copy = new Todo(id, title, completed, status);
+        copy.setPosition(position);
+        copy.setDueAt(dueAt);
+        copy.setRemindAt(remindAt);
+        copy.setTags(new LinkedHashSet<>(tags));
+        copy.setParentId(parentId);
+        copy.setPath(path);
+        copy.setSubtasks(subtasks);
+        copy.setCompletedSubtasks(completedSubtasks);
+        copy.setRecurrence(recurrence);
+        copy.setTemplateId(templateId);
+        copy.setOccurrenceAt(occurrenceAt);
+        copy.setVersion(version);
+        return copy;
+    }
+
+    // Completed share of the subtasks in percent, null without subtasks
+    public Integer getProgress() {
+        return subtasks == 0 ? null : completedSubtasks * 100 / subtasks;
+    }
+
+    // Path prefix shared by all descendants
+    public String subtreePath() {
+        return pathOrRoot() + id + "/";
+    }
+
+    public List<Long> ancestorIds() {
+        List<Long> ids = new ArrayList<>();
+        String current = pathOrRoot();
+        int start = 1;
+        for (int end = current.indexOf('/', start); end > 0; end = current.indexOf('/', start)) {
+            ids.add(Long.parseLong(current, start, end, 10));
+            start = end + 1;
+        }
+        return ids;
+    }
+
+    private String pathOrRoot() {
+        return path == null ? ROOT_PATH : path;
+    }
 }
@@ -0,0 +1,164 @@
+package com.project.Todo.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+/**
+ * Compact binary form of a {@link Todo} for append-only logs and off-heap storage.
+ * Starts with a format byte so records written by older versions stay readable;
+ * format 2 added the subtask hierarchy, format 3 recurrence.
+ */
+public final class TodoCodec {
+    private static final byte FORMAT = 3;
+
+    private static final int COMPLETED = 1;
+    private static final int STATUS = 1 << 1;
+    private static final int HAS_ID = 1 << 2;
+    private static final int HAS_VERSION = 1 << 3;
+    private static final int HAS_DUE_AT = 1 << 4;
+    private static final int HAS_REMIND_AT = 1 << 5;
+    private static final int HAS_TITLE = 1 << 6;
+    private static final int HAS_PARENT = 1 << 7;
+
+    // Second flags byte, format 3
+    private static final int HAS_RECURRENCE = 1;
+    private static final int HAS_TEMPLATE = 1 << 1;
+    private static final int HAS_OCCURRENCE = 1 << 2;
+
+    private TodoCodec() {
+    }
+
+    public static byte[] encode(Todo todo) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(todo, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Todo decode(byte[] bytes) {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void write(Todo todo, DataOutput out) throws IOException {
+        int flags = (todo.isCompleted() ? COMPLETED : 0)
+                | (todo.isStatus() ? STATUS : 0)
+                | (todo.getId() != null ? HAS_ID : 0)
+                | (todo.getVersion() != null ? HAS_VERSION : 0)
+                | (todo.getDueAt() != null ? HAS_DUE_AT : 0)
+                | (todo.getRemindAt() != null ? HAS_REMIND_AT : 0)
+                | (todo.getTitle() != null ? HAS_TITLE : 0)
+                | (todo.getParentId() != null ? HAS_PARENT : 0);
+        out.writeByte(FORMAT);
+        out.writeByte(flags);
+        if (todo.getId() != null) {
+            out.writeLong(todo.getId());
+        }
+        if (todo.getVersion() != null) {
+            out.writeLong(todo.getVersion());
+        }
+        out.writeLong(todo.getPosition());
+        if (todo.getDueAt() != null) {
+            writeInstant(todo.getDueAt(), out);
+        }
+        if (todo.getRemindAt() != null) {
+            writeInstant(todo.getRemindAt(), out);
+        }
+        if (todo.getTitle() != null) {
+            out.writeUTF(todo.getTitle());
+        }
+        out.writeUTF(String.join(",", todo.getTags()));
+        if (todo.getParentId() != null) {
+            out.writeLong(todo.getParentId());
+        }
+        out.writeUTF(todo.getPath() == null ? Todo.ROOT_PATH : todo.getPath());
+        out.writeInt(todo.getSubtasks());
+        out.writeInt(todo.getCompletedSubtasks());
+        out.writeByte((todo.getRecurrence() != null ? HAS_RECURRENCE : 0)
+                | (todo.getTemplateId() != null ? HAS_TEMPLATE : 0)
+                | (todo.getOccurrenceAt() != null ? HAS_OCCURRENCE : 0));
+        if (todo.getRecurrence() != null) {
+            out.writeUTF(todo.getRecurrence());
+        }
+        if (todo.getTemplateId() != null) {
+            out.writeLong(todo.getTemplateId());
+        }
+        if (todo.getOccurrenceAt() != null) {
+            writeInstant(todo.getOccurrenceAt(), out);
+        }
+    }
+
+    public static Todo read(DataInput in) throws IOException {
+        byte format = in.readByte();
+        if (format < 1 || format > FORMAT) {
+            throw new IOException("Unknown todo record format " + format);
+        }
+        int flags = in.readUnsignedByte();
+        Todo todo = new Todo();
+        todo.setCompleted((flags & COMPLETED) != 0);
+        todo.setStatus((flags & STATUS) != 0);
+        if ((flags & HAS_ID) != 0) {
+            todo.setId(in.readLong());
+        }
+        if ((flags & HAS_VERSION) != 0) {
+            todo.setVersion(in.readLong());
+        }
+        todo.setPosition(in.readLong());
+        if ((flags & HAS_DUE_AT) != 0) {
+            todo.setDueAt(readInstant(in));
+        }
+        if ((flags & HAS_REMIND_AT) != 0) {
+            todo.setRemindAt(readInstant(in));
+        }
+        if ((flags & HAS_TITLE) != 0) {
+            todo.setTitle(in.readUTF());
+        }
+        String tags = in.readUTF();
+        todo.setTags(tags.isEmpty() ? new LinkedHashSet<>() : new LinkedHashSet<>(Arrays.asList(tags.split(","))));
+        if (format >= 2) {
+            if ((flags & HAS_PARENT) != 0) {
+                todo.setParentId(in.readLong());
+            }
+            todo.setPath(in.readUTF());
+            todo.setSubtasks(in.readInt());
+            todo.setCompletedSubtasks(in.readInt());
+        }
+        if (format >= 3) {
+            int recurrenceFlags = in.readUnsignedByte();
+            if ((recurrenceFlags & HAS_RECURRENCE) != 0) {
+                todo.setRecurrence(in.readUTF());
+            }
+            if ((recurrenceFlags & HAS_TEMPLATE) != 0) {
+                todo.setTemplateId(in.readLong());
+            }
+            if ((recurrenceFlags & HAS_OCCURRENCE) != 0) {
+                todo.setOccurrenceAt(readInstant(in));
+            }
+        }
+        return todo;
+    }
+
+    private static void writeInstant(Instant instant, DataOutput out) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.project.Todo.event;
+
+import java.util.List;
+
+/**
+ * Published by {@link com.project.Todo.cluster.ClusterInvalidator} when another instance
+ * changed todos. Local state derived from the database (the tag index) has to reload them;
+ * unlike {@link TodoChangedEvent} there is no todo to go by, only its id.
+ *
+ * @param ids the changed todos, empty when invalidations were lost and any todo may have changed
+ */
+public record PeerChangedEvent(List<Long> ids) {
+
+    public static final PeerChangedEvent UNKNOWN = new PeerChangedEvent(List.of());
+
+    public boolean unknown() {
+        return ids.isEmpty();
+    }
+}
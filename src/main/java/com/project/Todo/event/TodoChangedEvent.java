@@ -0,0 +1,21 @@
+package com.project.Todo.event;
+
+import com.project.Todo.entity.Todo;
+
+/**
+ * Published by {@link com.project.Todo.service.TodoService} after a todo was saved. Listeners
+ * use {@code @TransactionalEventListener} so they only see changes that were committed.
+ *
+ * @param previous field values before the change, {@code null} when the todo was created
+ * @param current  the saved todo
+ */
+public record TodoChangedEvent(Todo previous, Todo current) {
+
+    public long id() {
+        return current.getId();
+    }
+
+    public boolean created() {
+        return previous == null;
+    }
+}
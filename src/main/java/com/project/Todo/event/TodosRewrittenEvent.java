@@ -0,0 +1,20 @@
+package com.project.Todo.event;
+
+import java.util.List;
+
+/**
+ * Published by {@link com.project.Todo.service.TodoService} after a bulk update changed todos
+ * without saving them one by one: the subtask counters of ancestors, or the positions of all
+ * active todos when the list is respaced. Their versions stay as they are, so caches have to
+ * drop the todos rather than compare versions.
+ *
+ * @param ids the changed todos, empty when any active todo may have changed
+ */
+public record TodosRewrittenEvent(List<Long> ids) {
+
+    public static final TodosRewrittenEvent ALL_ACTIVE = new TodosRewrittenEvent(List.of());
+
+    public boolean allActive() {
+        return ids.isEmpty();
+    }
+}
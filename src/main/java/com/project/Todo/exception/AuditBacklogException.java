@@ -0,0 +1,12 @@
+package com.project.Todo.exception;
+
+/**
+ * Thrown by {@link com.project.Todo.audit.AuditLog} when its writer stays behind for longer than
+ * {@code todo.audit.max-wait}. The change is rolled back rather than committed without a record.
+ */
+public class AuditBacklogException extends RuntimeException {
+
+    public AuditBacklogException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.Todo.exception;
+
+import com.project.Todo.entity.Todo;
+import lombok.Getter;
+
+/**
+ * Thrown when a todo was changed since the version the client sent. Carries the
+ * current state so the client can merge without another request.
+ */
+@Getter
+public class ConflictException extends RuntimeException {
+    private final Todo current;
+
+    public ConflictException(Todo current) {
+        super("Todo " + current.getId() + " was changed, current version is " + current.getVersion(), null, false, false);
+        this.current = current;
+    }
+}
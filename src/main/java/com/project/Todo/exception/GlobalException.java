@@ -1,34 +1,140 @@
 package com.project.Todo.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.Todo.entity.Todo;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Maps errors to RFC 7807 problem details. Error bodies only depend on the error itself,
+ * so they are serialized once and the bytes are reused for every later occurrence.
+ */
 @RestControllerAdvice
 public class GlobalException {
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        Map<String, String> fieldErrors = new HashMap<>();
+    private static final int MAX_CACHED_BODIES = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, byte[]> validationBodies = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> notFoundBodies = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> badRequestBodies = new ConcurrentHashMap<>();
+    private volatile byte[] auditBacklogBody;
+
+    public GlobalException(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
 
-        for (FieldError fieldError : ex.getBindingResult().getFieldErrors()) {
-            fieldErrors.put(fieldError.getField(), fieldError.getDefaultMessage());
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<byte[]> handleValidation(MethodArgumentNotValidException ex) {
+        List<FieldError> errors = ex.getBindingResult().getFieldErrors();
+        StringBuilder key = new StringBuilder();
+        for (FieldError fieldError : errors) {
+            key.append(fieldError.getField()).append('\0').append(fieldError.getDefaultMessage()).append('\0');
         }
 
-        errorResponse.put("message", "VALIDATION_ERROR");
-        errorResponse.put("details", fieldErrors);
+        byte[] body = cached(validationBodies, key.toString(), () -> {
+            Map<String, String> fieldErrors = new LinkedHashMap<>();
+            for (FieldError fieldError : errors) {
+                fieldErrors.put(fieldError.getField(), fieldError.getDefaultMessage());
+            }
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Request validation failed");
+            problem.setTitle("VALIDATION_ERROR");
+            problem.setProperty("message", "VALIDATION_ERROR");
+            problem.setProperty("details", fieldErrors);
+            return problem;
+        });
+        return problem(HttpStatus.BAD_REQUEST, body);
     }
 
     @ExceptionHandler(NotFoundException.class)
-    public ResponseEntity<?> handleNotFoundException(NotFoundException ex) {
-        return new ResponseEntity<>("Not found: " + ex.getMessage(), HttpStatus.BAD_REQUEST);
+    public ResponseEntity<byte[]> handleNotFoundException(NotFoundException ex) {
+        String message = String.valueOf(ex.getMessage());
+        byte[] body = cached(notFoundBodies, message, () -> {
+            ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, message);
+            problem.setTitle("NOT_FOUND");
+            return problem;
+        });
+        return problem(HttpStatus.NOT_FOUND, body);
+    }
+
+    // Requests that are well-formed but not allowed, such as moving a todo under its own subtask
+    @ExceptionHandler(InvalidTodoRequestException.class)
+    public ResponseEntity<byte[]> handleInvalidTodoRequestException(InvalidTodoRequestException ex) {
+        String message = String.valueOf(ex.getMessage());
+        byte[] body = cached(badRequestBodies, message, () -> {
+            ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, message);
+            problem.setTitle("BAD_REQUEST");
+            return problem;
+        });
+        return problem(HttpStatus.BAD_REQUEST, body);
+    }
+
+    // The body is the current todo, so the client can merge and retry with its version
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Todo> handleConflictException(ConflictException ex) {
+        Todo current = ex.getCurrent();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CONFLICT);
+        if (current.getVersion() != null) {
+            response.eTag(String.valueOf(current.getVersion()));
+        }
+        return response.body(current);
+    }
+
+    // Nothing was changed, the client can retry once the audit writer has caught up
+    @ExceptionHandler(AuditBacklogException.class)
+    public ResponseEntity<byte[]> handleAuditBacklogException(AuditBacklogException ex) {
+        byte[] body = auditBacklogBody;
+        if (body == null) {
+            ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Change history is behind, retry later");
+            problem.setTitle("SERVICE_UNAVAILABLE");
+            body = serialize(problem);
+            auditBacklogBody = body;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(body);
+    }
+
+    private ResponseEntity<byte[]> problem(HttpStatus status, byte[] body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(body);
+    }
+
+    private byte[] cached(Map<String, byte[]> cache, String key, Supplier<ProblemDetail> problem) {
+        byte[] body = cache.get(key);
+        if (body != null) {
+            return body;
+        }
+        body = serialize(problem.get());
+        // Keys come from a small, fixed set of messages; the bound only guards against surprises.
+        if (cache.size() < MAX_CACHED_BODIES) {
+            cache.putIfAbsent(key, body);
+        }
+        return body;
+    }
+
+    private byte[] serialize(ProblemDetail problem) {
+        try {
+            return objectMapper.writeValueAsBytes(problem);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize problem detail", e);
+        }
     }
 }
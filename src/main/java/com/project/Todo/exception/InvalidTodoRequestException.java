@@ -0,0 +1,13 @@
+package com.project.Todo.exception;
+
+/**
+ * Thrown when a request is well-formed but not allowed, such as moving a todo under its own
+ * subtask. Only this type becomes a 400 response; other IllegalArgumentExceptions are bugs and
+ * their messages stay on the server. Messages are fixed texts, they go to the client as they are.
+ */
+public class InvalidTodoRequestException extends IllegalArgumentException {
+
+    public InvalidTodoRequestException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,13 @@
 package com.project.Todo.exception;
 
+/**
+ * Thrown when a todo does not exist. Misses are a normal outcome under load, so the
+ * exception is stackless and the common case reuses {@link #NOT_FOUND}.
+ */
 public class NotFoundException extends RuntimeException {
+    public static final NotFoundException NOT_FOUND = new NotFoundException("Not found");
+
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
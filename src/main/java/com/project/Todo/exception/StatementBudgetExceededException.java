@@ -0,0 +1,12 @@
+package com.project.Todo.exception;
+
+/**
+ * Thrown by {@link com.project.Todo.guard.QueryGuard} when a request runs more statements than
+ * its budget and {@code todo.query-guard.fail} is set, so the change causing it fails in tests.
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
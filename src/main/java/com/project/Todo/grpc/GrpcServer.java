@@ -0,0 +1,92 @@
+package com.project.Todo.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves {@link TodoGrpcService} on its own port, next to the servlet container, with its own
+ * fixed pool of {@code todo.grpc.threads} so gRPC calls and REST requests do not starve each
+ * other. Shutdown lets running calls finish for up to {@code todo.grpc.shutdown-grace}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.grpc.enabled", havingValue = "true")
+public class GrpcServer implements SmartLifecycle {
+
+    private final Server server;
+    private final ExecutorService executor;
+    private final Duration shutdownGrace;
+    private volatile boolean running;
+
+    public GrpcServer(TodoGrpcService todoGrpcService,
+                      @Value("${todo.grpc.port:9090}") int port,
+                      @Value("${todo.grpc.threads:16}") int threads,
+                      @Value("${todo.grpc.max-inbound-message-size:4MB}") DataSize maxInboundMessageSize,
+                      @Value("${todo.grpc.max-concurrent-calls-per-connection:256}") int maxConcurrentCalls,
+                      @Value("${todo.grpc.keep-alive:PT60S}") Duration keepAlive,
+                      @Value("${todo.grpc.shutdown-grace:PT10S}") Duration shutdownGrace) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "todo-grpc-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = NettyServerBuilder.forPort(port)
+                .executor(executor)
+                .addService(todoGrpcService)
+                .maxInboundMessageSize((int) maxInboundMessageSize.toBytes())
+                .maxConcurrentCallsPerConnection(maxConcurrentCalls)
+                .keepAliveTime(keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        this.shutdownGrace = shutdownGrace;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the gRPC server", e);
+        }
+        running = true;
+        log.info("gRPC server listening on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGrace.toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdown();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getPort() {
+        return server.getPort();
+    }
+}
@@ -0,0 +1,282 @@
+package com.project.Todo.grpc;
+
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.exception.AuditBacklogException;
+import com.project.Todo.exception.ConflictException;
+import com.project.Todo.exception.InvalidTodoRequestException;
+import com.project.Todo.exception.NotFoundException;
+import com.project.Todo.grpc.proto.BulkCreateResponse;
+import com.project.Todo.grpc.proto.ListRequest;
+import com.project.Todo.grpc.proto.TodoChange;
+import com.project.Todo.grpc.proto.TodoId;
+import com.project.Todo.grpc.proto.TodoItem;
+import com.project.Todo.grpc.proto.TodoRequest;
+import com.project.Todo.grpc.proto.TodoServiceGrpc;
+import com.project.Todo.grpc.proto.UpdateRequest;
+import com.project.Todo.grpc.proto.VersionedId;
+import com.project.Todo.grpc.proto.WatchRequest;
+import com.project.Todo.service.TodoService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * The REST operations of {@link com.project.Todo.controller.TodoAPI} over gRPC, on top of
+ * {@link TodoService}. Streams follow the client's flow control: the list is sent as fast as
+ * the client reads it, and a change watcher that falls {@code todo.grpc.watch-buffer} changes
+ * behind is closed with RESOURCE_EXHAUSTED rather than buffering without bound.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.grpc.enabled", havingValue = "true")
+public class TodoGrpcService extends TodoServiceGrpc.TodoServiceImplBase {
+    // Bulk creates are committed in transactions of this many todos
+    static final int BULK_CHUNK = 500;
+
+    private final TodoService todoService;
+    private final Validator validator;
+    private final int watchBuffer;
+    private final Set<Watcher> watchers = ConcurrentHashMap.newKeySet();
+
+    public TodoGrpcService(TodoService todoService, Validator validator,
+                           @Value("${todo.grpc.watch-buffer:1024}") int watchBuffer) {
+        this.todoService = todoService;
+        this.validator = validator;
+        this.watchBuffer = watchBuffer;
+    }
+
+    @Override
+    public void create(TodoRequest request, StreamObserver<TodoItem> responseObserver) {
+        unary(responseObserver, () -> todoService.createTodo(validated(request)));
+    }
+
+    @Override
+    public void get(TodoId request, StreamObserver<TodoItem> responseObserver) {
+        unary(responseObserver, () -> todoService.getTodo(request.getId()));
+    }
+
+    @Override
+    public void update(UpdateRequest request, StreamObserver<TodoItem> responseObserver) {
+        unary(responseObserver, () -> {
+            TodoDTO todoDTO = validated(request.getTodo());
+            return request.hasExpectedVersion()
+                    ? todoService.updateTodoById(request.getId(), todoDTO, request.getExpectedVersion())
+                    : todoService.updateTodoById(request.getId(), todoDTO);
+        });
+    }
+
+    @Override
+    public void toggle(VersionedId request, StreamObserver<TodoItem> responseObserver) {
+        unary(responseObserver, () -> request.hasExpectedVersion()
+                ? todoService.updateTodoComplete(request.getId(), request.getExpectedVersion())
+                : todoService.updateTodoComplete(request.getId()));
+    }
+
+    @Override
+    public void delete(VersionedId request, StreamObserver<TodoItem> responseObserver) {
+        unary(responseObserver, () -> request.hasExpectedVersion()
+                ? todoService.deleteTodo(request.getId(), request.getExpectedVersion())
+                : todoService.deleteTodo(request.getId()));
+    }
+
+    @Override
+    public void list(ListRequest request, StreamObserver<TodoItem> responseObserver) {
+        ServerCallStreamObserver<TodoItem> call = (ServerCallStreamObserver<TodoItem>) responseObserver;
+        Iterator<Todo> todos = todoService.getAll().iterator();
+        boolean[] completed = new boolean[1];
+        // Runs whenever the client can take more, on the call's serialized executor
+        call.setOnReadyHandler(() -> {
+            while (call.isReady() && todos.hasNext()) {
+                call.onNext(TodoMessages.toItem(todos.next()));
+            }
+            if (!todos.hasNext() && !completed[0]) {
+                completed[0] = true;
+                call.onCompleted();
+            }
+        });
+    }
+
+    @Override
+    public void watchChanges(WatchRequest request, StreamObserver<TodoChange> responseObserver) {
+        watchers.add(new Watcher((ServerCallStreamObserver<TodoChange>) responseObserver));
+    }
+
+    @Override
+    public StreamObserver<TodoRequest> bulkCreate(StreamObserver<BulkCreateResponse> responseObserver) {
+        return new StreamObserver<>() {
+            private final List<TodoDTO> chunk = new ArrayList<>(BULK_CHUNK);
+            private final BulkCreateResponse.Builder response = BulkCreateResponse.newBuilder();
+            private boolean failed;
+
+            @Override
+            public void onNext(TodoRequest request) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    chunk.add(validated(request));
+                    if (chunk.size() == BULK_CHUNK) {
+                        flush();
+                    }
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+
+            // The client went away, chunks already committed stay
+            @Override
+            public void onError(Throwable t) {
+                failed = true;
+            }
+
+            @Override
+            public void onCompleted() {
+                if (failed) {
+                    return;
+                }
+                try {
+                    flush();
+                } catch (RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+                responseObserver.onNext(response.setCreated(response.getIdsCount()).build());
+                responseObserver.onCompleted();
+            }
+
+            private void flush() {
+                if (!chunk.isEmpty()) {
+                    for (Todo todo : todoService.createTodos(chunk)) {
+                        response.addIds(todo.getId());
+                    }
+                    chunk.clear();
+                }
+            }
+
+            private void fail(RuntimeException e) {
+                failed = true;
+                Status status = statusOf(e).getStatus();
+                responseObserver.onError(status.withDescription(status.getDescription()
+                        + " (" + response.getIdsCount() + " todos were created before)").asRuntimeException());
+            }
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (watchers.isEmpty()) {
+            return;
+        }
+        TodoChange.Kind kind = event.created() ? TodoChange.Kind.CREATED
+                : event.previous().isStatus() && !event.current().isStatus() ? TodoChange.Kind.DELETED
+                : TodoChange.Kind.UPDATED;
+        TodoChange change = TodoChange.newBuilder().setKind(kind).setTodo(TodoMessages.toItem(event.current())).build();
+        for (Watcher watcher : watchers) {
+            watcher.offer(change);
+        }
+    }
+
+    int watcherCount() {
+        return watchers.size();
+    }
+
+    private void unary(StreamObserver<TodoItem> responseObserver, Supplier<Todo> call) {
+        Todo todo;
+        try {
+            todo = call.get();
+        } catch (RuntimeException e) {
+            responseObserver.onError(statusOf(e));
+            return;
+        }
+        responseObserver.onNext(TodoMessages.toItem(todo));
+        responseObserver.onCompleted();
+    }
+
+    private TodoDTO validated(TodoRequest request) {
+        TodoDTO todoDTO = TodoMessages.toDTO(request);
+        Set<ConstraintViolation<TodoDTO>> violations = validator.validate(todoDTO);
+        if (!violations.isEmpty()) {
+            throw new InvalidTodoRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return todoDTO;
+    }
+
+    // The gRPC counterparts of the REST error responses in GlobalException
+    private static StatusRuntimeException statusOf(RuntimeException e) {
+        if (e instanceof NotFoundException) {
+            return Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException();
+        }
+        if (e instanceof ConflictException) {
+            return Status.ABORTED.withDescription(e.getMessage()).asRuntimeException();
+        }
+        if (e instanceof InvalidTodoRequestException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException();
+        }
+        if (e instanceof AuditBacklogException) {
+            return Status.UNAVAILABLE.withDescription(e.getMessage()).asRuntimeException();
+        }
+        log.error("gRPC todo call failed", e);
+        return Status.INTERNAL.withDescription("Internal error").asRuntimeException();
+    }
+
+    // One WatchChanges call; changes wait here while the client is not ready for more
+    private final class Watcher {
+        private final ServerCallStreamObserver<TodoChange> call;
+        private final ArrayDeque<TodoChange> buffer = new ArrayDeque<>();
+        private boolean closed;
+
+        Watcher(ServerCallStreamObserver<TodoChange> call) {
+            this.call = call;
+            call.setOnCancelHandler(this::close);
+            call.setOnReadyHandler(this::drain);
+        }
+
+        synchronized void offer(TodoChange change) {
+            if (closed) {
+                return;
+            }
+            if (buffer.size() >= watchBuffer) {
+                close();
+                call.onError(Status.RESOURCE_EXHAUSTED
+                        .withDescription("Fell more than " + watchBuffer + " changes behind").asRuntimeException());
+                return;
+            }
+            buffer.add(change);
+            drain();
+        }
+
+        synchronized void drain() {
+            while (!closed && call.isReady() && !buffer.isEmpty()) {
+                call.onNext(buffer.poll());
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            buffer.clear();
+            watchers.remove(this);
+        }
+    }
+}
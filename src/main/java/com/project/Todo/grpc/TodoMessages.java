@@ -0,0 +1,72 @@
+package com.project.Todo.grpc;
+
+import com.google.protobuf.Timestamp;
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.grpc.proto.TodoItem;
+import com.project.Todo.grpc.proto.TodoRequest;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+
+/**
+ * Conversions between the protobuf messages of todo.proto and the entity and DTO used by
+ * {@link com.project.Todo.service.TodoService}.
+ */
+final class TodoMessages {
+
+    private TodoMessages() {
+    }
+
+    static TodoItem toItem(Todo todo) {
+        TodoItem.Builder item = TodoItem.newBuilder()
+                .setId(todo.getId())
+                .setTitle(todo.getTitle())
+                .setCompleted(todo.isCompleted())
+                .setPosition(todo.getPosition())
+                .addAllTags(todo.getTags())
+                .setSubtasks(todo.getSubtasks())
+                .setCompletedSubtasks(todo.getCompletedSubtasks());
+        if (todo.getDueAt() != null) {
+            item.setDueAt(timestamp(todo.getDueAt()));
+        }
+        if (todo.getRemindAt() != null) {
+            item.setRemindAt(timestamp(todo.getRemindAt()));
+        }
+        if (todo.getParentId() != null) {
+            item.setParentId(todo.getParentId());
+        }
+        if (todo.getRecurrence() != null) {
+            item.setRecurrence(todo.getRecurrence());
+        }
+        if (todo.getTemplateId() != null) {
+            item.setTemplateId(todo.getTemplateId());
+        }
+        if (todo.getOccurrenceAt() != null) {
+            item.setOccurrenceAt(timestamp(todo.getOccurrenceAt()));
+        }
+        if (todo.getVersion() != null) {
+            item.setVersion(todo.getVersion());
+        }
+        return item.build();
+    }
+
+    static TodoDTO toDTO(TodoRequest request) {
+        TodoDTO todoDTO = new TodoDTO();
+        todoDTO.setTitle(request.getTitle());
+        todoDTO.setDueAt(request.hasDueAt() ? instant(request.getDueAt()) : null);
+        todoDTO.setRemindAt(request.hasRemindAt() ? instant(request.getRemindAt()) : null);
+        todoDTO.setTags(new LinkedHashSet<>(request.getTagsList()));
+        todoDTO.setRecurrence(request.hasRecurrence() ? request.getRecurrence() : null);
+        todoDTO.setParentId(request.hasParentId() ? request.getParentId() : null);
+        return todoDTO;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return Timestamp.newBuilder().setSeconds(instant.getEpochSecond()).setNanos(instant.getNano()).build();
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+    }
+}
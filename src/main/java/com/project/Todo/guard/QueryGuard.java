@@ -0,0 +1,145 @@
+package com.project.Todo.guard;
+
+import com.project.Todo.exception.StatementBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the statements each request runs against the store, SQL statements with JPA and
+ * store calls with the in-memory store, and flags requests that run more than their
+ * {@link StatementBudget} or the same statement too often (a query per row, N+1), as well
+ * as statements slower than {@code todo.diagnostics.slow-query-ms}. Findings are logged
+ * with the handler that ran them; with {@code todo.query-guard.fail}, set by the dev
+ * profile and by the test configuration (src/test/resources/config), the statement over
+ * budget fails with {@link StatementBudgetExceededException}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.query-guard.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryGuard {
+    private final ThreadLocal<Request> current = new ThreadLocal<>();
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final long slowMillis;
+    private final boolean fail;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder violations = new LongAdder();
+    private final LongAdder slowStatements = new LongAdder();
+    private final LongAccumulator maxRequestStatements = new LongAccumulator(Math::max, 0);
+
+    private static final class Request {
+        final String endpoint;
+        final int budget;
+        final int repeatBudget;
+        final Map<String, Integer> repeats = new HashMap<>();
+        int statements;
+        String mostRepeated;
+        int mostRepeatedCount;
+        boolean violated;
+
+        Request(String endpoint, int budget, int repeatBudget) {
+            this.endpoint = endpoint;
+            this.budget = budget;
+            this.repeatBudget = repeatBudget;
+        }
+    }
+
+    public QueryGuard(@Value("${todo.query-guard.max-statements:20}") int maxStatements,
+                      @Value("${todo.query-guard.max-repeats:5}") int maxRepeats,
+                      @Value("${todo.diagnostics.slow-query-ms:200}") long slowMillis,
+                      @Value("${todo.query-guard.fail:false}") boolean fail) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.slowMillis = slowMillis;
+        this.fail = fail;
+    }
+
+    /**
+     * Starts counting for the request handled on this thread.
+     *
+     * @param budget the handler's budget, {@code null} for the defaults
+     */
+    public void begin(String endpoint, StatementBudget budget) {
+        int repeats = budget == null || budget.repeats() < 0 ? maxRepeats : budget.repeats();
+        current.set(new Request(endpoint, budget == null ? maxStatements : budget.value(), repeats));
+    }
+
+    public void end() {
+        Request request = current.get();
+        if (request == null) {
+            return;
+        }
+        current.remove();
+        requests.increment();
+        maxRequestStatements.accumulate(request.statements);
+        if (request.violated) {
+            log.warn("{} ran {} statements (budget {}), the most repeated one {} times (budget {}): {}", request.endpoint,
+                    request.statements, request.budget, request.mostRepeatedCount, request.repeatBudget, request.mostRepeated);
+        }
+    }
+
+    public void statement(String statement) {
+        statement(statement, false);
+    }
+
+    /**
+     * Counts a statement about to run, outside a request it is not counted. A JDBC batch is
+     * one statement and does not count as a repeat: a write per row sent as batches of
+     * {@code hibernate.jdbc.batch_size} is not a query per row.
+     */
+    public void statement(String statement, boolean batch) {
+        statements.increment();
+        Request request = current.get();
+        if (request == null) {
+            return;
+        }
+        request.statements++;
+        int repeated = batch ? request.repeats.getOrDefault(statement, 0) : request.repeats.merge(statement, 1, Integer::sum);
+        if (repeated > request.mostRepeatedCount) {
+            request.mostRepeated = statement;
+            request.mostRepeatedCount = repeated;
+        }
+        if (request.violated || (request.statements <= request.budget && repeated <= request.repeatBudget)) {
+            return;
+        }
+        request.violated = true;
+        violations.increment();
+        if (fail) {
+            String reason = request.statements > request.budget
+                    ? request.statements + " statements, budget " + request.budget
+                    : "the same statement " + repeated + " times, budget " + request.repeatBudget;
+            throw new StatementBudgetExceededException(request.endpoint + " ran " + reason + ": " + statement);
+        }
+    }
+
+    public void completed(String statement, long elapsedMillis) {
+        if (elapsedMillis < slowMillis) {
+            return;
+        }
+        slowStatements.increment();
+        Request request = current.get();
+        log.warn("Slow statement ({} ms) in {}: {}", elapsedMillis,
+                request == null ? "a background task" : request.endpoint, statement);
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("requests", requests.sum());
+        metrics.put("statements", statements.sum());
+        metrics.put("maxRequestStatements", maxRequestStatements.get());
+        metrics.put("violations", violations.sum());
+        metrics.put("slowStatements", slowStatements.sum());
+        metrics.put("fail", fail);
+        return metrics;
+    }
+}
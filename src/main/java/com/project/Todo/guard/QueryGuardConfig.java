@@ -0,0 +1,85 @@
+package com.project.Todo.guard;
+
+import com.project.Todo.repository.TodoStore;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Feeds {@link QueryGuard}: requests through {@link QueryGuardInterceptor}, SQL statements
+ * through a listener on the proxied DataSource, and with todo.storage=memory the calls into
+ * the {@link TodoStore}, which stand in for the statements JPA would run.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.query-guard.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryGuardConfig implements WebMvcConfigurer {
+    private final QueryGuard queryGuard;
+
+    public QueryGuardConfig(QueryGuard queryGuard) {
+        this.queryGuard = queryGuard;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryGuardInterceptor(queryGuard));
+    }
+
+    // A batch counts as one statement, it is one round trip
+    @Bean
+    public QueryExecutionListener queryGuardListener() {
+        return new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                queryGuard.statement(sqlOf(queryInfoList), execInfo.isBatch());
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                queryGuard.completed(sqlOf(queryInfoList), execInfo.getElapsedTime());
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.storage", havingValue = "memory")
+    public static Advisor storeStatementAdvisor(ObjectProvider<QueryGuard> queryGuard) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return ReflectionUtils.findMethod(TodoStore.class, method.getName(), method.getParameterTypes()) != null;
+            }
+        };
+        pointcut.setClassFilter(TodoStore.class::isAssignableFrom);
+        MethodInterceptor interceptor = invocation -> {
+            QueryGuard guard = queryGuard.getObject();
+            String statement = "TodoStore." + invocation.getMethod().getName();
+            guard.statement(statement);
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                guard.completed(statement, (System.nanoTime() - start) / 1_000_000);
+            }
+        };
+        return new DefaultPointcutAdvisor(pointcut, interceptor);
+    }
+
+    private static String sqlOf(List<QueryInfo> queryInfoList) {
+        return queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery()
+                : String.join("; ", queryInfoList.stream().map(QueryInfo::getQuery).toList());
+    }
+}
@@ -0,0 +1,35 @@
+package com.project.Todo.guard;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Brackets each handler call with {@link QueryGuard#begin} and {@link QueryGuard#end}, naming
+ * the endpoint by its mapping and handler, e.g. {@code GET /api/todo/{id} (TodoAPI#getTodoById)}.
+ */
+class QueryGuardInterceptor implements HandlerInterceptor {
+    private final QueryGuard queryGuard;
+
+    QueryGuardInterceptor(QueryGuard queryGuard) {
+        this.queryGuard = queryGuard;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI())
+                    + " (" + method.getBeanType().getSimpleName() + "#" + method.getMethod().getName() + ")";
+            queryGuard.begin(endpoint, method.getMethodAnnotation(StatementBudget.class));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        queryGuard.end();
+    }
+}
@@ -0,0 +1,21 @@
+package com.project.Todo.guard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The statements a handler may run per request, checked by {@link QueryGuard}. Handlers
+ * without it get {@code todo.query-guard.max-statements} and {@code todo.query-guard.max-repeats}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    // Statements in total
+    int value();
+
+    // Executions of the same statement, more hint at a query per row (N+1); -1 for the default
+    int repeats() default -1;
+}
@@ -0,0 +1,26 @@
+package com.project.Todo.operation;
+
+import com.project.Todo.entity.Todo;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a mutation accepted with {@code Prefer: respond-async}. {@code status} is the
+ * HTTP status the request would have had if it ran synchronously; {@code todo} is the
+ * result, or the current todo for a conflict.
+ */
+public record Operation(String id, OperationState state, Integer status, Todo todo, String error,
+                        Instant submittedAt, Instant completedAt) {
+
+    static Operation pending(String id) {
+        return new Operation(id, OperationState.PENDING, null, null, null, Instant.now(), null);
+    }
+
+    Operation succeeded(Todo todo) {
+        return new Operation(id, OperationState.SUCCEEDED, 200, todo, null, submittedAt, Instant.now());
+    }
+
+    Operation failed(int status, Todo todo, String error) {
+        return new Operation(id, OperationState.FAILED, status, todo, error, submittedAt, Instant.now());
+    }
+}
@@ -0,0 +1,279 @@
+package com.project.Todo.operation;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.exception.AuditBacklogException;
+import com.project.Todo.exception.ConflictException;
+import com.project.Todo.exception.InvalidTodoRequestException;
+import com.project.Todo.exception.NotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs mutations accepted with {@code Prefer: respond-async} off the request threads.
+ * Mutations are queued on bounded partitions chosen by todo id, each drained by a single
+ * worker, so changes to one todo apply in the order they were accepted. A worker takes
+ * whatever has queued up, up to {@code todo.async.batch-size}, and commits it in one
+ * transaction; if any mutation in the batch fails, the batch is rolled back and its
+ * mutations are re-run one by one so each gets its own outcome.
+ * <p>
+ * Outcomes are kept for {@code todo.async.retention}, but never more than
+ * {@code todo.async.max-retained} of them: past that the oldest outcomes are dropped early,
+ * and polling them answers 404. Pending operations are bounded by the partition capacity.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.async.enabled", havingValue = "true")
+public class OperationQueue {
+    private final List<BlockingQueue<Task>> partitions = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    // Completed operations, oldest first, for expiry and eviction
+    private final Queue<Operation> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final int maxRetained;
+    private final ObjectProvider<TransactionOperations> transactions;
+    private final int batchSize;
+    private final long retentionMillis;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+    private volatile boolean running;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedOperations = new LongAdder();
+    private final LongAdder rolledBackBatches = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    private record Task(Long todoId, Operation operation, Supplier<Todo> mutation) {
+    }
+
+    public OperationQueue(ObjectProvider<TransactionOperations> transactions,
+                          @Value("${todo.async.partitions:0}") int partitions,
+                          @Value("${todo.async.capacity:1024}") int capacity,
+                          @Value("${todo.async.batch-size:64}") int batchSize,
+                          @Value("${todo.async.retention:PT15M}") Duration retention,
+                          @Value("${todo.async.max-retained:100000}") int maxRetained) {
+        if (capacity < 1 || batchSize < 1 || maxRetained < 1) {
+            throw new IllegalArgumentException("todo.async.capacity, batch-size and max-retained must be positive");
+        }
+        int count = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < count; i++) {
+            this.partitions.add(new ArrayBlockingQueue<>(capacity));
+        }
+        this.transactions = transactions;
+        this.batchSize = batchSize;
+        this.retentionMillis = retention.toMillis();
+        this.maxRetained = maxRetained;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < partitions.size(); i++) {
+            BlockingQueue<Task> partition = partitions.get(i);
+            Thread worker = new Thread(() -> drain(partition), "todo-async-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    // Accepted mutations are still applied, new ones are refused
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues a mutation of the todo {@code todoId}, or of a new todo when it is null.
+     * Empty when the partition is full; the caller should ask the client to retry later.
+     */
+    public Optional<Operation> submit(Long todoId, Supplier<Todo> mutation) {
+        if (!running) {
+            return Optional.empty();
+        }
+        Operation operation = Operation.pending(UUID.randomUUID().toString());
+        operations.put(operation.id(), operation);
+        if (!partitionOf(todoId).offer(new Task(todoId, operation, mutation))) {
+            operations.remove(operation.id());
+            rejected.increment();
+            return Optional.empty();
+        }
+        submitted.increment();
+        return Optional.of(operation);
+    }
+
+    public Optional<Operation> find(String id) {
+        return Optional.ofNullable(operations.get(id));
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long batchCount = batches.sum();
+        metrics.put("queued", partitions.stream().mapToInt(BlockingQueue::size).sum());
+        metrics.put("maxPartitionQueued", partitions.stream().mapToInt(BlockingQueue::size).max().orElse(0));
+        metrics.put("submitted", submitted.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("succeeded", succeeded.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("batches", batchCount);
+        metrics.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) batchedOperations.sum() / batchCount);
+        metrics.put("rolledBackBatches", rolledBackBatches.sum());
+        metrics.put("retained", operations.size());
+        metrics.put("maxRetained", maxRetained);
+        metrics.put("evicted", evicted.sum());
+        return metrics;
+    }
+
+    // Outcomes are kept for todo.async.retention after completion for clients to pick up
+    @Scheduled(fixedDelayString = "${todo.async.retention-check:PT1M}")
+    public void expire() {
+        Instant cutoff = Instant.now().minusMillis(retentionMillis);
+        Operation oldest;
+        while ((oldest = completed.peek()) != null && oldest.completedAt().isBefore(cutoff)) {
+            dropOldest();
+        }
+    }
+
+    private void dropOldest() {
+        Operation oldest = completed.poll();
+        if (oldest != null) {
+            operations.remove(oldest.id(), oldest);
+            completedCount.decrementAndGet();
+        }
+    }
+
+    private BlockingQueue<Task> partitionOf(Long todoId) {
+        // New todos have no order to keep, they are spread round robin
+        long key = todoId != null ? todoId : nextPartition.getAndIncrement();
+        return partitions.get((int) Math.floorMod(key, (long) partitions.size()));
+    }
+
+    private void drain(BlockingQueue<Task> partition) {
+        List<Task> drained = new ArrayList<>(batchSize);
+        while (running || !partition.isEmpty()) {
+            try {
+                Task first = partition.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+                partition.drainTo(drained, batchSize - 1);
+                process(drained);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Async todo worker failed", e);
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+
+    // A todo changes at most once per transaction, so each mutation sees the previous one's version
+    private void process(List<Task> drained) {
+        List<Task> batch = new ArrayList<>(drained.size());
+        Set<Long> todoIds = new HashSet<>();
+        for (Task task : drained) {
+            if (task.todoId() != null && !todoIds.add(task.todoId())) {
+                commit(batch);
+                batch.clear();
+                todoIds.clear();
+                todoIds.add(task.todoId());
+            }
+            batch.add(task);
+        }
+        commit(batch);
+    }
+
+    private void commit(List<Task> batch) {
+        batches.increment();
+        batchedOperations.add(batch.size());
+        TransactionOperations transactionOperations = transactions.getIfAvailable();
+        if (transactionOperations != null && batch.size() > 1) {
+            try {
+                List<Todo> results = transactionOperations.execute(status -> {
+                    List<Todo> todos = new ArrayList<>(batch.size());
+                    for (Task task : batch) {
+                        todos.add(task.mutation().get());
+                    }
+                    return todos;
+                });
+                for (int i = 0; i < batch.size(); i++) {
+                    complete(batch.get(i).operation().succeeded(results.get(i)));
+                }
+                return;
+            } catch (RuntimeException e) {
+                // Nothing of the batch was committed, find out which mutation failed
+                rolledBackBatches.increment();
+            }
+        }
+        for (Task task : batch) {
+            complete(run(task));
+        }
+    }
+
+    private Operation run(Task task) {
+        Operation operation = task.operation();
+        try {
+            return operation.succeeded(task.mutation().get());
+        } catch (ConflictException e) {
+            return operation.failed(409, e.getCurrent(), e.getMessage());
+        } catch (NotFoundException e) {
+            return operation.failed(404, null, e.getMessage());
+        } catch (InvalidTodoRequestException e) {
+            return operation.failed(400, null, e.getMessage());
+        } catch (ResponseStatusException e) {
+            return operation.failed(e.getStatusCode().value(), null, e.getReason());
+        } catch (AuditBacklogException e) {
+            return operation.failed(503, null, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Async todo operation {} failed", operation.id(), e);
+            return operation.failed(500, null, "Internal error");
+        }
+    }
+
+    private void complete(Operation outcome) {
+        operations.put(outcome.id(), outcome);
+        completed.add(outcome);
+        if (completedCount.incrementAndGet() > maxRetained) {
+            dropOldest();
+            evicted.increment();
+        }
+        (outcome.state() == OperationState.SUCCEEDED ? succeeded : failed).increment();
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.Todo.operation;
+
+public enum OperationState {
+    PENDING,
+    SUCCEEDED,
+    FAILED
+}
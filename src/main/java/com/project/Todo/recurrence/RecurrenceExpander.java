@@ -0,0 +1,119 @@
+package com.project.Todo.recurrence;
+
+import com.project.Todo.exception.InvalidTodoRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Expands recurrence rules (Spring cron expressions, including macros such as
+ * {@code @daily} or {@code @weekly}) into occurrence times. Time is cut into fixed windows
+ * and the occurrences of a rule in a window are computed once and cached; they do not
+ * depend on the todo, so every todo with the same rule shares them. A range query only
+ * expands the windows it has not seen before and binary searches the rest.
+ */
+@Component
+public class RecurrenceExpander {
+    // Rules firing more often than every 5 minutes are rejected
+    static final int MAX_PER_WINDOW = 2016;
+
+    private final long windowMillis;
+    private final ZoneId zone;
+    private final Map<WindowKey, long[]> windows;
+
+    private record WindowKey(String rule, long start) {
+    }
+
+    public RecurrenceExpander(@Value("${todo.recurrence.window:P7D}") Duration window,
+                              @Value("${todo.recurrence.zone:UTC}") ZoneId zone,
+                              @Value("${todo.recurrence.cache-size:4096}") int cacheSize) {
+        this.windowMillis = window.toMillis();
+        this.zone = zone;
+        // Least recently used windows are dropped first
+        this.windows = new LinkedHashMap<>(cacheSize * 4 / 3, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<WindowKey, long[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @throws InvalidTodoRequestException when the rule is not a cron expression or fires too often
+     */
+    public void validate(String rule) {
+        if (!CronExpression.isValidExpression(rule)) {
+            throw new InvalidTodoRequestException("Recurrence must be a cron expression such as '0 0 9 * * MON-FRI' or '@daily'");
+        }
+        long start = Math.floorDiv(System.currentTimeMillis(), windowMillis) * windowMillis;
+        if (window(rule, start).length >= MAX_PER_WINDOW) {
+            throw new InvalidTodoRequestException("Recurrence must not fire more often than every 5 minutes");
+        }
+    }
+
+    /**
+     * Hands the occurrences in [from, to) that are not before {@code start} to {@code occurrence},
+     * in order, as epoch milliseconds, and stops after {@code limit} of them.
+     */
+    public void expand(String rule, Instant start, Instant from, Instant to, int limit, LongConsumer occurrence) {
+        long lower = Math.max(from.toEpochMilli(), start.toEpochMilli());
+        long upper = to.toEpochMilli();
+        int count = 0;
+        for (long windowStart = Math.floorDiv(lower, windowMillis) * windowMillis; windowStart < upper && count < limit;
+             windowStart += windowMillis) {
+            long[] times = window(rule, windowStart);
+            int index = Arrays.binarySearch(times, lower);
+            for (int i = index < 0 ? -index - 1 : index; i < times.length && times[i] < upper && count < limit; i++) {
+                occurrence.accept(times[i]);
+                count++;
+            }
+        }
+    }
+
+    public boolean isOccurrence(String rule, Instant start, Instant at) {
+        long time = at.toEpochMilli();
+        if (time < start.toEpochMilli() || at.getNano() % 1_000_000 != 0) {
+            return false;
+        }
+        return Arrays.binarySearch(window(rule, Math.floorDiv(time, windowMillis) * windowMillis), time) >= 0;
+    }
+
+    private long[] window(String rule, long start) {
+        WindowKey key = new WindowKey(rule, start);
+        synchronized (windows) {
+            long[] times = windows.get(key);
+            if (times != null) {
+                return times;
+            }
+        }
+        long[] times = compute(CronExpression.parse(rule), start, start + windowMillis);
+        synchronized (windows) {
+            windows.put(key, times);
+        }
+        return times;
+    }
+
+    private long[] compute(CronExpression cron, long start, long end) {
+        long[] times = new long[16];
+        int size = 0;
+        // next() is exclusive, start just before the window so an occurrence at its start is included
+        ZonedDateTime next = cron.next(Instant.ofEpochMilli(start - 1).atZone(zone));
+        while (next != null && next.toInstant().toEpochMilli() < end && size < MAX_PER_WINDOW) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+            }
+            times[size++] = next.toInstant().toEpochMilli();
+            next = cron.next(next);
+        }
+        return Arrays.copyOf(times, size);
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.Todo.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class LoggingReminderSink implements ReminderSink {
+
+    @Override
+    public void deliver(Reminder reminder) {
+        log.info("Reminder for todo {} '{}' (due {})", reminder.todoId(), reminder.title(), reminder.dueAt());
+    }
+}
@@ -0,0 +1,6 @@
+package com.project.Todo.reminder;
+
+import java.time.Instant;
+
+public record Reminder(long todoId, String title, Instant remindAt, Instant dueAt) {
+}
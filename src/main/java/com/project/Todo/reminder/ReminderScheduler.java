@@ -0,0 +1,185 @@
+package com.project.Todo.reminder;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.repository.TodoStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fires todo reminders from a {@link TimingWheel}. Only reminders due within the next
+ * window are held in memory; they are loaded from the database window by window, and
+ * todo changes inside the current window are applied from {@link TodoChangedEvent}s.
+ * <p>
+ * At startup the first window reaches back {@code todo.reminders.catch-up}, so reminders
+ * that came due while the application was down still fire, late. Reminders already fired
+ * before a restart within that time fire again: delivery is at least once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 3;
+
+    private final TodoStore todoRepository;
+    private final ReminderSink reminderSink;
+    private final long tickMillis;
+    private final long windowMillis;
+    private final long catchUpMillis;
+    private final TimingWheel<Reminder> wheel;
+
+    // Latest reminder per todo; wheel entries that no longer match were rescheduled or cancelled
+    private final Map<Long, Reminder> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(daemon("reminder-wheel"));
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(daemon("reminder-delivery"));
+    private volatile long loadedUntil;
+
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder lagMillis = new LongAdder();
+    private final LongAccumulator maxLagMillis = new LongAccumulator(Long::max, 0);
+
+    public ReminderScheduler(TodoStore todoRepository, ReminderSink reminderSink,
+                             @Value("${todo.reminders.tick:PT1S}") Duration tick,
+                             @Value("${todo.reminders.window:PT1H}") Duration window,
+                             @Value("${todo.reminders.catch-up:PT1H}") Duration catchUp) {
+        this.todoRepository = todoRepository;
+        this.reminderSink = reminderSink;
+        this.tickMillis = tick.toMillis();
+        this.windowMillis = window.toMillis();
+        this.catchUpMillis = catchUp.toMillis();
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+        if (windowMillis * 2 > wheel.spanMillis()) {
+            throw new IllegalArgumentException("todo.reminders.window must be at most half of " + Duration.ofMillis(wheel.spanMillis()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Reminders missed while down are in the past, the wheel fires them on its next tick
+        loadedUntil = System.currentTimeMillis() - catchUpMillis;
+        ticker.scheduleWithFixedDelay(this::loadWindow, 0, windowMillis / 2, TimeUnit.MILLISECONDS);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        delivery.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        Todo todo = event.current();
+        Instant remindAt = todo.getRemindAt();
+        if (!todo.isStatus() || todo.isCompleted() || remindAt == null) {
+            pending.remove(todo.getId());
+        } else if (remindAt.toEpochMilli() < System.currentTimeMillis() + windowMillis) {
+            schedule(todo);
+        } else {
+            // Outside the loaded window, picked up by a later loadWindow
+            pending.remove(todo.getId());
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long count = fired.sum();
+        metrics.put("pending", pending.size());
+        metrics.put("fired", count);
+        metrics.put("failed", failed.sum());
+        metrics.put("avgLagMillis", count == 0 ? 0 : lagMillis.sum() / count);
+        metrics.put("maxLagMillis", maxLagMillis.get());
+        metrics.put("loadedUntil", Instant.ofEpochMilli(loadedUntil));
+        return metrics;
+    }
+
+    void loadWindow() {
+        try {
+            long from = loadedUntil;
+            long to = System.currentTimeMillis() + windowMillis;
+            if (to <= from) {
+                return;
+            }
+            List<Todo> todos = todoRepository.findByStatusTrueAndCompletedFalseAndRemindAtGreaterThanEqualAndRemindAtLessThan(
+                    Instant.ofEpochMilli(from), Instant.ofEpochMilli(to));
+            for (Todo todo : todos) {
+                schedule(todo);
+            }
+            loadedUntil = to;
+        } catch (RuntimeException e) {
+            log.warn("Could not load reminders", e);
+        }
+    }
+
+    void tick() {
+        try {
+            List<Reminder> due = new ArrayList<>();
+            synchronized (wheel) {
+                wheel.advance(System.currentTimeMillis(), due::add);
+            }
+            for (Reminder reminder : due) {
+                if (pending.remove(reminder.todoId(), reminder)) {
+                    delivery.execute(() -> deliver(reminder));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reminder tick failed", e);
+        }
+    }
+
+    private void schedule(Todo todo) {
+        Reminder reminder = new Reminder(todo.getId(), todo.getTitle(), todo.getRemindAt(), todo.getDueAt());
+        pending.put(reminder.todoId(), reminder);
+        boolean scheduled;
+        synchronized (wheel) {
+            scheduled = wheel.schedule(reminder.remindAt().toEpochMilli(), reminder);
+        }
+        if (!scheduled) {
+            pending.remove(reminder.todoId(), reminder);
+        }
+    }
+
+    private void deliver(Reminder reminder) {
+        long lag = Math.max(0, System.currentTimeMillis() - reminder.remindAt().toEpochMilli());
+        fired.increment();
+        lagMillis.add(lag);
+        maxLagMillis.accumulate(lag);
+        try {
+            reminderSink.deliver(reminder);
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Could not deliver reminder for todo {}", reminder.todoId(), e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.Todo.reminder;
+
+/**
+ * Receives reminders when they fire. The default sink logs them; declare another
+ * implementation as a {@code @Primary} bean to deliver them elsewhere.
+ */
+public interface ReminderSink {
+    void deliver(Reminder reminder);
+}
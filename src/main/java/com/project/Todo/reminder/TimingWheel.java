@@ -0,0 +1,114 @@
+package com.project.Todo.reminder;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one bucket per tick, every higher level has
+ * buckets {@code wheelSize} times coarser. Scheduling is O(1) and an entry is moved down
+ * at most once per level, so the cost of advancing does not depend on how many entries
+ * are pending further in the future.
+ * <p>
+ * Not thread-safe, callers synchronize.
+ */
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final ArrayList<Entry<T>>[][] buckets;
+    private long currentTick;
+    private int size;
+
+    private record Entry<T>(long tick, T item) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levels];
+        long ticks = 1;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = ticks;
+            ticks = Math.multiplyExact(ticks, wheelSize);
+        }
+        this.buckets = new ArrayList[levels][wheelSize];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Time covered by the wheel, entries due later than this are rejected.
+     */
+    public long spanMillis() {
+        return levelTicks[levelTicks.length - 1] * wheelSize * tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules an item, deadlines in the past fire on the next {@link #advance}.
+     *
+     * @return false when the deadline lies beyond the span of the wheel
+     */
+    public boolean schedule(long deadlineMillis, T item) {
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        if (!place(new Entry<>(tick, item))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis} and hands every expired item to {@code expired}.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levelTicks.length - 1; level > 0; level--) {
+                if (currentTick % levelTicks[level] == 0) {
+                    ArrayList<Entry<T>> bucket = take(level, (int) ((currentTick / levelTicks[level]) % wheelSize));
+                    if (bucket != null) {
+                        for (Entry<T> entry : bucket) {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+            ArrayList<Entry<T>> due = take(0, (int) (currentTick % wheelSize));
+            if (due != null) {
+                size -= due.size();
+                for (Entry<T> entry : due) {
+                    expired.accept(entry.item());
+                }
+            }
+        }
+    }
+
+    // Puts the entry on the lowest level whose buckets still tell its tick apart from the current one
+    private boolean place(Entry<T> entry) {
+        for (int level = 0; level < levelTicks.length; level++) {
+            long tick = entry.tick() / levelTicks[level];
+            if (tick - currentTick / levelTicks[level] < wheelSize) {
+                int slot = (int) (tick % wheelSize);
+                ArrayList<Entry<T>> bucket = buckets[level][slot];
+                if (bucket == null) {
+                    bucket = new ArrayList<>();
+                    buckets[level][slot] = bucket;
+                }
+                bucket.add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ArrayList<Entry<T>> take(int level, int slot) {
+        ArrayList<Entry<T>> bucket = buckets[level][slot];
+        buckets[level][slot] = null;
+        return bucket;
+    }
+}
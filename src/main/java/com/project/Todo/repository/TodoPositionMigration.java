@@ -0,0 +1,93 @@
+package com.project.Todo.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Schema version 3, user-defined order: gap-spaced sort keys so a move rewrites a single row.
+ * Existing rows are numbered in id order, {@value #BATCH_ROWS} ids per statement, each
+ * committed on its own, so the backfill never holds locks on the whole table or builds one
+ * large undo log. Every step can be re-run after a failure.
+ */
+@Slf4j
+@Component
+public class TodoPositionMigration implements JavaMigration {
+    static final int BATCH_ROWS = 10_000;
+    // Same spacing as TodoService.POSITION_GAP
+    private static final long POSITION_GAP = 1L << 16;
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("3");
+    }
+
+    @Override
+    public String getDescription() {
+        return "todo position";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    // Each batch commits by itself
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            if (!exists(connection, "COLUMNS", "COLUMN_NAME", "position")) {
+                statement.execute("ALTER TABLE todo ADD COLUMN position BIGINT NOT NULL DEFAULT 0, ALGORITHM = INSTANT");
+            }
+
+            long maxId;
+            try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM todo")) {
+                result.next();
+                maxId = result.getLong(1);
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE todo SET position = id * ? WHERE id > ? AND id <= ? AND position = 0")) {
+                for (long from = 0; from < maxId; from += BATCH_ROWS) {
+                    update.setLong(1, POSITION_GAP);
+                    update.setLong(2, from);
+                    update.setLong(3, from + BATCH_ROWS);
+                    update.executeUpdate();
+                }
+            }
+            log.info("Numbered todos up to id {} in batches of {}", maxId, BATCH_ROWS);
+
+            // Active rows are read in position order without a sort, and max(position) is the last index entry
+            if (exists(connection, "STATISTICS", "INDEX_NAME", "idx_todo_status")) {
+                statement.execute("ALTER TABLE todo DROP INDEX idx_todo_status, ALGORITHM = INPLACE, LOCK = NONE");
+            }
+            if (!exists(connection, "STATISTICS", "INDEX_NAME", "idx_todo_status_position")) {
+                statement.execute("ALTER TABLE todo ADD INDEX idx_todo_status_position (status, position), "
+                        + "ALGORITHM = INPLACE, LOCK = NONE");
+            }
+        }
+    }
+
+    private static boolean exists(Connection connection, String table, String column, String name) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA." + table
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'todo' AND " + column + " = ?")) {
+            query.setString(1, name);
+            try (ResultSet result = query.executeQuery()) {
+                return result.next();
+            }
+        }
+    }
+}
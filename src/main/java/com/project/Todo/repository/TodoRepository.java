@@ -1,14 +1,76 @@
 package com.project.Todo.repository;
 
+import com.project.Todo.config.SecondLevelCacheConfig;
 import com.project.Todo.entity.Todo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TodoRepository extends JpaRepository<Todo,Long> {
+public interface TodoRepository extends JpaRepository<Todo,Long>, TodoStore {
+    // Cached in the query cache when the second-level cache is enabled, until the next write to the table
+    @Query("select t from Todo t where t.status = true order by t.position, t.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.ACTIVE_LIST_REGION)
+    })
     List<Todo> findByStatusTrue();
-    Optional<Todo> findTodoById(long id);
+
+    // A lookup by primary key rather than a query, so the second-level cache is consulted first
+    @Override
+    default Optional<Todo> findTodoById(long id) {
+        return findById(id);
+    }
+
+    // Declared by both JpaRepository and TodoStore, redeclared so calls are not ambiguous
+    @Override
+    <S extends Todo> S save(S todo);
+    @Override
+    <S extends Todo> List<S> saveAll(Iterable<S> todos);
+
+    @Query("select coalesce(max(t.position), 0) from Todo t where t.status = true")
+    long findMaxActivePosition();
+    Optional<Todo> findFirstByStatusTrueOrderByPositionAscIdAsc();
+    Optional<Todo> findFirstByStatusTrueAndPositionGreaterThanOrderByPositionAscIdAsc(long position);
+
+    long countByStatusTrueAndCompletedFalse();
+    long countByStatusTrueAndCompletedTrue();
+    long countByStatusFalse();
+
+    List<Todo> findByStatusTrueAndCompletedFalseAndRemindAtGreaterThanEqualAndRemindAtLessThan(Instant from, Instant to);
+
+    // Recurrence: templates, todos due in a range and the occurrences already materialized
+    List<Todo> findByStatusTrueAndRecurrenceIsNotNull();
+    List<Todo> findByStatusTrueAndDueAtGreaterThanEqualAndDueAtLessThan(Instant from, Instant to);
+    List<Todo> findByTemplateIdInAndOccurrenceAtGreaterThanEqualAndOccurrenceAtLessThan(Collection<Long> templateIds, Instant from, Instant to);
+    Optional<Todo> findByTemplateIdAndOccurrenceAt(long templateId, Instant occurrenceAt);
+
+    // Respaces all active todos by `gap`, keeping their order, in one statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE todo t JOIN (SELECT id, ROW_NUMBER() OVER (ORDER BY position, id) AS rn FROM todo WHERE status = 1) r"
+            + " ON t.id = r.id SET t.position = r.rn * :gap", nativeQuery = true)
+    int rebalancePositions(@Param("gap") long gap);
+
+    // Range scan on idx_todo_path
+    @Query("select t from Todo t where t.path like concat(:path, '%') and t.status = true order by t.path, t.position, t.id")
+    List<Todo> findActiveSubtree(@Param("path") String path);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("update Todo t set t.subtasks = t.subtasks + :subtasks, t.completedSubtasks = t.completedSubtasks + :completedSubtasks"
+            + " where t.id in :ids")
+    int adjustSubtasks(@Param("ids") Collection<Long> ids, @Param("subtasks") int subtasks,
+                       @Param("completedSubtasks") int completedSubtasks);
 }
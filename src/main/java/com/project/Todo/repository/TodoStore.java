@@ -0,0 +1,50 @@
+package com.project.Todo.repository;
+
+import com.project.Todo.entity.Todo;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage used by the service layer. {@link TodoRepository} implements it on top of JPA,
+ * {@link com.project.Todo.store.InMemoryTodoStore} keeps todos in memory with a
+ * write-ahead log (todo.storage=memory).
+ * <p>
+ * Saving a todo whose version is no longer current fails with an
+ * {@link org.springframework.dao.OptimisticLockingFailureException}.
+ */
+public interface TodoStore {
+    // Active todos in list order (position, then id)
+    List<Todo> findByStatusTrue();
+    Optional<Todo> findTodoById(long id);
+    List<Todo> findAllById(Iterable<Long> ids);
+    <S extends Todo> S save(S todo);
+    <S extends Todo> List<S> saveAll(Iterable<S> todos);
+
+    long findMaxActivePosition();
+    Optional<Todo> findFirstByStatusTrueOrderByPositionAscIdAsc();
+    Optional<Todo> findFirstByStatusTrueAndPositionGreaterThanOrderByPositionAscIdAsc(long position);
+
+    long countByStatusTrueAndCompletedFalse();
+    long countByStatusTrueAndCompletedTrue();
+    long countByStatusFalse();
+
+    List<Todo> findByStatusTrueAndCompletedFalseAndRemindAtGreaterThanEqualAndRemindAtLessThan(Instant from, Instant to);
+
+    // Recurrence: templates, todos due in a range and the occurrences already materialized
+    List<Todo> findByStatusTrueAndRecurrenceIsNotNull();
+    List<Todo> findByStatusTrueAndDueAtGreaterThanEqualAndDueAtLessThan(Instant from, Instant to);
+    List<Todo> findByTemplateIdInAndOccurrenceAtGreaterThanEqualAndOccurrenceAtLessThan(Collection<Long> templateIds, Instant from, Instant to);
+    Optional<Todo> findByTemplateIdAndOccurrenceAt(long templateId, Instant occurrenceAt);
+
+    // Respaces all active todos by `gap`, keeping their order
+    int rebalancePositions(long gap);
+
+    // Active todos whose path starts with `path`, parents before their children
+    List<Todo> findActiveSubtree(String path);
+
+    // Adds to the subtask counters of the given todos without touching their version
+    int adjustSubtasks(Collection<Long> ids, int subtasks, int completedSubtasks);
+}
@@ -0,0 +1,177 @@
+package com.project.Todo.service;
+
+import com.project.Todo.audit.AuditLog;
+import com.project.Todo.cache.TodoCache;
+import com.project.Todo.cluster.ClusterInvalidator;
+import com.project.Todo.coalescing.ReadCoalescer;
+import com.project.Todo.config.PoolMetrics;
+import com.project.Todo.guard.QueryGuard;
+import com.project.Todo.operation.OperationQueue;
+import com.project.Todo.reminder.ReminderScheduler;
+import com.project.Todo.store.InMemoryTodoStore;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.internal.NoCachingRegionFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects live connection pool, statement cache and query statistics for the
+ * diagnostics endpoint.
+ */
+@Service
+public class DiagnosticsService {
+    private final PoolMetrics poolMetrics;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+    private final ObjectProvider<ReminderScheduler> reminderScheduler;
+    private final ObjectProvider<AuditLog> auditLog;
+    private final ObjectProvider<InMemoryTodoStore> inMemoryTodoStore;
+    private final ObjectProvider<OperationQueue> operationQueue;
+    private final ObjectProvider<TodoCache> todoCache;
+    private final ObjectProvider<ClusterInvalidator> clusterInvalidator;
+    private final ObjectProvider<QueryGuard> queryGuard;
+    private final ObjectProvider<ReadCoalescer> readCoalescer;
+    private final long slowQueryMillis;
+
+    public DiagnosticsService(PoolMetrics poolMetrics, ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                              ObjectProvider<JdbcTemplate> jdbcTemplate, ObjectProvider<InMemoryTodoStore> inMemoryTodoStore,
+                              ObjectProvider<ReminderScheduler> reminderScheduler, ObjectProvider<AuditLog> auditLog,
+                              ObjectProvider<OperationQueue> operationQueue, ObjectProvider<TodoCache> todoCache,
+                              ObjectProvider<ClusterInvalidator> clusterInvalidator, ObjectProvider<QueryGuard> queryGuard,
+                              ObjectProvider<ReadCoalescer> readCoalescer,
+                              @Value("${todo.diagnostics.slow-query-ms:200}") long slowQueryMillis) {
+        this.poolMetrics = poolMetrics;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.inMemoryTodoStore = inMemoryTodoStore;
+        this.reminderScheduler = reminderScheduler;
+        this.auditLog = auditLog;
+        this.operationQueue = operationQueue;
+        this.todoCache = todoCache;
+        this.clusterInvalidator = clusterInvalidator;
+        this.queryGuard = queryGuard;
+        this.readCoalescer = readCoalescer;
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    public Map<String, Object> getDiagnostics() {
+        Map<String, Object> diagnostics = new LinkedHashMap<>();
+        // Without a database (todo.storage=memory) only the store itself is reported
+        jdbcTemplate.ifAvailable(jdbc -> {
+            diagnostics.put("pool", poolMetrics.snapshot());
+            diagnostics.put("statementCache", statementCache(jdbc));
+        });
+        entityManagerFactory.ifAvailable(factory -> {
+            diagnostics.put("queries", queries(factory));
+            SessionFactory sessionFactory = factory.unwrap(SessionFactory.class);
+            if (!(sessionFactory.getCache().unwrap(CacheImplementor.class).getRegionFactory() instanceof NoCachingRegionFactory)) {
+                diagnostics.put("secondLevelCache", secondLevelCache(sessionFactory.getStatistics()));
+            }
+        });
+        inMemoryTodoStore.ifAvailable(store -> diagnostics.put("store", store.metrics()));
+        reminderScheduler.ifAvailable(scheduler -> diagnostics.put("reminders", scheduler.metrics()));
+        auditLog.ifAvailable(audit -> diagnostics.put("audit", audit.metrics()));
+        operationQueue.ifAvailable(queue -> diagnostics.put("async", queue.metrics()));
+        todoCache.ifAvailable(cache -> diagnostics.put("cache", cache.metrics()));
+        clusterInvalidator.ifAvailable(cluster -> diagnostics.put("cluster", cluster.metrics()));
+        queryGuard.ifAvailable(guard -> diagnostics.put("queryGuard", guard.metrics()));
+        readCoalescer.ifAvailable(coalescer -> diagnostics.put("coalescing", coalescer.metrics()));
+        return diagnostics;
+    }
+
+    // Server-side prepared statement reuse: every execute without a matching prepare was a cache hit.
+    // MySQL only counts these per server (or per session), so they include every other client of the
+    // server since it started; this pool's own share is not available and the result says so.
+    private Map<String, Object> statementCache(JdbcTemplate jdbcTemplate) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scope", "server");
+        Map<String, Long> status = new HashMap<>();
+        try {
+            jdbcTemplate.query("SHOW GLOBAL STATUS WHERE Variable_name IN ('Com_stmt_prepare', 'Com_stmt_execute', 'Com_stmt_reprepare')",
+                    (RowCallbackHandler) rs -> status.put(rs.getString(1), rs.getLong(2)));
+        } catch (DataAccessException e) {
+            result.put("error", e.getMostSpecificCause().getMessage());
+            return result;
+        }
+        long prepares = status.getOrDefault("Com_stmt_prepare", 0L);
+        long executes = status.getOrDefault("Com_stmt_execute", 0L);
+        result.put("prepares", prepares);
+        result.put("executes", executes);
+        result.put("reprepares", status.getOrDefault("Com_stmt_reprepare", 0L));
+        result.put("hitRatio", executes == 0 ? 0.0 : Math.max(0.0, 1.0 - (double) prepares / executes));
+        return result;
+    }
+
+    // Per region of the Hibernate second-level cache (todo.l2-cache.enabled), plus the query cache as a whole
+    private Map<String, Object> secondLevelCache(Statistics statistics) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            long hits = regionStatistics.getHitCount();
+            long misses = regionStatistics.getMissCount();
+            Map<String, Object> regionResult = new LinkedHashMap<>();
+            regionResult.put("hits", hits);
+            regionResult.put("misses", misses);
+            regionResult.put("puts", regionStatistics.getPutCount());
+            regionResult.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            result.put(region, regionResult);
+        }
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", statistics.getQueryCacheHitCount());
+        queryCache.put("misses", statistics.getQueryCacheMissCount());
+        queryCache.put("puts", statistics.getQueryCachePutCount());
+        queryCache.put("invalidations", statistics.getUpdateTimestampsCachePutCount());
+        result.put("queryCache", queryCache);
+        return result;
+    }
+
+    private Map<String, Object> queries(EntityManagerFactory entityManagerFactory) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return result;
+        }
+        result.put("executions", statistics.getQueryExecutionCount());
+        result.put("preparedStatements", statistics.getPrepareStatementCount());
+        result.put("maxTimeMillis", statistics.getQueryExecutionMaxTime());
+        result.put("maxTimeQuery", statistics.getQueryExecutionMaxTimeQueryString());
+
+        List<Map<String, Object>> slowQueries = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            if (queryStatistics.getExecutionMaxTime() < slowQueryMillis) {
+                continue;
+            }
+            Map<String, Object> slowQuery = new LinkedHashMap<>();
+            slowQuery.put("query", query);
+            slowQuery.put("executions", queryStatistics.getExecutionCount());
+            slowQuery.put("avgTimeMillis", queryStatistics.getExecutionAvgTime());
+            slowQuery.put("maxTimeMillis", queryStatistics.getExecutionMaxTime());
+            slowQuery.put("rows", queryStatistics.getExecutionRowCount());
+            slowQueries.add(slowQuery);
+        }
+        slowQueries.sort(Comparator.comparingLong((Map<String, Object> q) -> (Long) q.get("maxTimeMillis")).reversed());
+        result.put("slowQueries", slowQueries);
+        return result;
+    }
+}
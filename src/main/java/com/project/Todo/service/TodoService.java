@@ -1,61 +1,608 @@
 package com.project.Todo.service;
 
+import com.project.Todo.cache.TodoCache;
+import com.project.Todo.coalescing.ReadCoalescer;
+import com.project.Todo.dto.MoveDTO;
+import com.project.Todo.dto.ParentDTO;
+import com.project.Todo.dto.TodoStatsDTO;
 import com.project.Todo.dto.TodoDTO;
 import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.event.TodosRewrittenEvent;
+import com.project.Todo.exception.ConflictException;
+import com.project.Todo.exception.InvalidTodoRequestException;
 import com.project.Todo.exception.NotFoundException;
-import com.project.Todo.repository.TodoRepository;
+import com.project.Todo.recurrence.RecurrenceExpander;
+import com.project.Todo.repository.TodoStore;
+import com.project.Todo.tag.TagFilter;
+import com.project.Todo.tag.TagIndex;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class TodoService {
+    // Spacing between neighbouring positions, leaves room for 16 halvings per gap
+    static final long POSITION_GAP = 1L << 16;
+    // Below this gap a background rebalance is scheduled before the gap runs out
+    static final long MIN_POSITION_GAP = 16;
+    // Deepest level a subtask can be nested at, keeps paths within their column
+    static final int MAX_DEPTH = 32;
+    static final Comparator<Todo> LIST_ORDER = Comparator.comparingLong(Todo::getPosition).thenComparing(Todo::getId);
+    // Expanded occurrences have no id yet and sort after stored todos due at the same time
+    static final Comparator<Todo> AGENDA_ORDER = Comparator.comparing(Todo::getDueAt)
+            .thenComparing(Todo::getId, Comparator.nullsLast(Comparator.naturalOrder()));
 
     @Autowired
-    TodoRepository todoRepository;
+    TodoStore todoRepository;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    TagIndex tagIndex;
+
+    @Autowired
+    TodoStats todoStats;
+
+    @Autowired
+    RecurrenceExpander recurrenceExpander;
+
+    // Absent unless todo.cache.enabled is set
+    @Autowired(required = false)
+    TodoCache todoCache;
+
+    // Absent when todo.coalescing.enabled is false
+    @Autowired(required = false)
+    ReadCoalescer readCoalescer;
+
+    // Absent without a transaction manager (in-memory storage), operations then run as they are
+    @Autowired(required = false)
+    TransactionOperations transactions;
+
+    // Retries of toggle, delete and move after a concurrent change, they do not depend on the other fields
+    @Value("${todo.optimistic.max-retries:3}")
+    int maxRetries;
+
+    private final AtomicBoolean rebalanceRequested = new AtomicBoolean();
+
+    // Concurrent identical reads share one query when coalescing is enabled
     public List<Todo> getAll()
     {
+        if (readCoalescer != null) {
+            return readCoalescer.activeTodos(todoRepository::findByStatusTrue);
+        }
         return todoRepository.findByStatusTrue();
     }
 
+    /**
+     * An active todo, from the per-instance cache when it is enabled. The cache is filled
+     * after the read and refuses the todo if a newer version was committed meanwhile. On a miss,
+     * concurrent reads of the same todo share one query when coalescing is enabled.
+     */
+    public Todo getTodo(Long id)
+    {
+        if (todoCache != null) {
+            Optional<Todo> cached = todoCache.get(id);
+            if (cached.isPresent()) {
+                return cached.filter(Todo::isStatus).orElseThrow(() -> NotFoundException.NOT_FOUND);
+            }
+        }
+        Optional<Todo> found = readCoalescer != null
+                ? readCoalescer.todo(id, () -> todoRepository.findTodoById(id))
+                : todoRepository.findTodoById(id);
+        Todo todo = found.orElseThrow(() -> NotFoundException.NOT_FOUND);
+        if (todoCache != null) {
+            todoCache.put(todo);
+        }
+        if (!todo.isStatus()) {
+            throw NotFoundException.NOT_FOUND;
+        }
+        return todo;
+    }
+
+    public TodoStatsDTO getStats()
+    {
+        return todoStats.getStats();
+    }
+
+    // Active todos matching a tag combination, resolved against the tag index and fetched in one query.
+    // The index can be behind the database (changes on other instances), so the todos are checked again.
+    public List<Todo> filterTodos(TagFilter filter, int limit)
+    {
+        List<Long> ids = tagIndex.filter(filter, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Todo> todos = new ArrayList<>(todoRepository.findAllById(ids));
+        todos.removeIf(todo -> !filter.matches(todo));
+        todos.sort(LIST_ORDER);
+        return todos;
+    }
+
     public Todo createTodo(TodoDTO todoDTO)
+    {
+        Todo todo = newTodo(todoDTO);
+        return inTransaction(() -> insert(todo, todoRepository.findMaxActivePosition() + POSITION_GAP));
+    }
+
+    // Every todo is checked before the first one is saved, so an invalid one fails the batch
+    // without creating any. With a database the batch is also one transaction; the in-memory
+    // store has none, so a save failing midway keeps the todos saved before it.
+    // The last position is read once, the todos are appended after it in order.
+    public List<Todo> createTodos(List<TodoDTO> todoDTOs)
+    {
+        return inTransaction(() -> {
+            List<Todo> todos = new ArrayList<>(todoDTOs.size());
+            for (TodoDTO todoDTO : todoDTOs) {
+                todos.add(newTodo(todoDTO));
+            }
+            long position = todoRepository.findMaxActivePosition();
+            for (int i = 0; i < todos.size(); i++) {
+                position += POSITION_GAP;
+                todos.set(i, insert(todos.get(i), position));
+            }
+            return todos;
+        });
+    }
+
+    private Todo newTodo(TodoDTO todoDTO)
     {
         Todo todo = new Todo();
         todo.setTitle(todoDTO.getTitle());
         todo.setCompleted(false);
         todo.setStatus(true);
-        return todoRepository.save(todo);
+        todo.setDueAt(todoDTO.getDueAt());
+        todo.setRemindAt(todoDTO.getRemindAt());
+        todo.setTags(tagsOf(todoDTO));
+        setRecurrence(todo, todoDTO);
+        if (todoDTO.getParentId() != null) {
+            Todo parent = todoRepository.findTodoById(todoDTO.getParentId()).filter(Todo::isStatus)
+                    .orElseThrow(() -> NotFoundException.NOT_FOUND);
+            if (parent.ancestorIds().size() + 1 >= MAX_DEPTH) {
+                throw new InvalidTodoRequestException("Subtasks can be nested at most " + MAX_DEPTH + " levels deep");
+            }
+            todo.setParentId(parent.getId());
+            todo.setPath(parent.subtreePath());
+        }
+        return todo;
+    }
+
+    private Todo insert(Todo todo, long position)
+    {
+        todo.setPosition(position);
+        Todo saved = save(null, todo);
+        adjustAncestors(saved.ancestorIds(), 1, 0);
+        return saved;
+    }
+
+    /**
+     * The todo followed by all its active descendants, parents before their children,
+     * fetched with one query on the path index.
+     */
+    public List<Todo> getSubtree(Long id)
+    {
+        Todo todo = todoRepository.findTodoById(id).filter(Todo::isStatus).orElseThrow(() -> NotFoundException.NOT_FOUND);
+        List<Todo> subtree = new ArrayList<>();
+        subtree.add(todo);
+        if (todo.getSubtasks() > 0) {
+            subtree.addAll(todoRepository.findActiveSubtree(todo.subtreePath()));
+        }
+        return subtree;
+    }
+
+    /**
+     * Todos due in [from, to), ordered by due time, with the occurrences of recurring todos
+     * expanded on the fly instead of being stored. An occurrence that was materialized
+     * (completed, edited or deleted) replaces its expansion.
+     */
+    public List<Todo> getAgenda(Instant from, Instant to, int limit)
+    {
+        List<Todo> agenda = new ArrayList<>();
+        for (Todo todo : todoRepository.findByStatusTrueAndDueAtGreaterThanEqualAndDueAtLessThan(from, to)) {
+            if (todo.getRecurrence() == null) {
+                agenda.add(todo);
+            }
+        }
+        List<Todo> templates = todoRepository.findByStatusTrueAndRecurrenceIsNotNull();
+        if (!templates.isEmpty()) {
+            Map<Long, Set<Long>> materialized = new HashMap<>();
+            List<Long> templateIds = templates.stream().map(Todo::getId).toList();
+            for (Todo occurrence : todoRepository.findByTemplateIdInAndOccurrenceAtGreaterThanEqualAndOccurrenceAtLessThan(templateIds, from, to)) {
+                materialized.computeIfAbsent(occurrence.getTemplateId(), templateId -> new HashSet<>())
+                        .add(occurrence.getOccurrenceAt().toEpochMilli());
+            }
+            for (Todo template : templates) {
+                Set<Long> skipped = materialized.getOrDefault(template.getId(), Set.of());
+                recurrenceExpander.expand(template.getRecurrence(), template.getDueAt(), from, to, limit, at -> {
+                    if (!skipped.contains(at)) {
+                        agenda.add(occurrenceOf(template, Instant.ofEpochMilli(at)));
+                    }
+                });
+            }
+        }
+        agenda.sort(AGENDA_ORDER);
+        return agenda.size() > limit ? agenda.subList(0, limit) : agenda;
+    }
+
+    /**
+     * Stores one occurrence of a recurring todo as a todo of its own, so it can be completed,
+     * edited or deleted like any other. Returns the stored occurrence if there already is one.
+     */
+    public Todo materializeOccurrence(Long templateId, Instant at)
+    {
+        Todo template = todoRepository.findTodoById(templateId).filter(Todo::isStatus).orElseThrow(() -> NotFoundException.NOT_FOUND);
+        if (template.getRecurrence() == null) {
+            throw new InvalidTodoRequestException("Todo is not recurring");
+        }
+        Optional<Todo> existing = todoRepository.findByTemplateIdAndOccurrenceAt(templateId, at);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        if (!recurrenceExpander.isOccurrence(template.getRecurrence(), template.getDueAt(), at)) {
+            throw NotFoundException.NOT_FOUND;
+        }
+        Todo occurrence = occurrenceOf(template, at);
+        try {
+            return inTransaction(() -> {
+                occurrence.setPosition(todoRepository.findMaxActivePosition() + POSITION_GAP);
+                return save(null, occurrence);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Materialized by a concurrent request, the unique key kept the second copy out
+            return todoRepository.findByTemplateIdAndOccurrenceAt(templateId, at).orElseThrow(() -> e);
+        }
+    }
+
+    public Todo updateOccurrenceComplete(Long templateId, Instant at)
+    {
+        return updateTodoComplete(materializeOccurrence(templateId, at).getId());
+    }
+
+    public Todo deleteOccurrence(Long templateId, Instant at)
+    {
+        return deleteTodo(materializeOccurrence(templateId, at).getId());
     }
 
     public Todo deleteTodo(long id)
     {
-        Todo todo=todoRepository.findTodoById(id).orElseThrow(() -> new NotFoundException("Not found"));
-        todo.setStatus(false);
-        return todoRepository.save(todo);
+        return deleteTodo(id, null);
+    }
+
+    /**
+     * @param expectedVersion version the client last saw (If-Match), {@code null} to skip the check
+     */
+    public Todo deleteTodo(long id, Long expectedVersion)
+    {
+        return withRetry(id, expectedVersion == null, () -> {
+            Todo todo=todoRepository.findTodoById(id).orElseThrow(() -> NotFoundException.NOT_FOUND);
+            checkVersion(todo, expectedVersion);
+            boolean wasActive = todo.isStatus();
+            Todo previous = todo.snapshot();
+            todo.setStatus(false);
+            Todo saved = save(previous, todo);
+            if (wasActive) {
+                deleteSubtasks(saved);
+            }
+            return saved;
+        });
+    }
+
+    // Deletes the active descendants along with their parent and takes them all out of the ancestors' counters
+    private void deleteSubtasks(Todo todo)
+    {
+        List<Todo> descendants = todo.getSubtasks() > 0 ? todoRepository.findActiveSubtree(todo.subtreePath()) : List.of();
+        int completed = todo.isCompleted() ? 1 : 0;
+        for (Todo descendant : descendants) {
+            completed += descendant.isCompleted() ? 1 : 0;
+        }
+        saveAll(descendants, descendant -> descendant.setStatus(false));
+        adjustAncestors(todo.ancestorIds(), -(1 + descendants.size()), -completed);
     }
 
     public Todo updateTodoById(Long id, TodoDTO todoDTO) {
-        Todo todo = todoRepository.findTodoById(id).orElseThrow(() -> new NotFoundException("Not found"));
-        todo.setTitle(todoDTO.getTitle());
-        return todoRepository.save(todo);
+        return updateTodoById(id, todoDTO, null);
+    }
+
+    // A full update is never retried, it would overwrite the concurrent change
+    public Todo updateTodoById(Long id, TodoDTO todoDTO, Long expectedVersion) {
+        if (id == null) {
+            throw new InvalidTodoRequestException("ID cannot be null");
+        }
+        return withRetry(id, false, () -> {
+            Todo todo = todoRepository.findTodoById(id).orElseThrow(() -> NotFoundException.NOT_FOUND);
+            checkVersion(todo, expectedVersion);
+            Todo previous = todo.snapshot();
+            todo.setTitle(todoDTO.getTitle());
+            todo.setDueAt(todoDTO.getDueAt());
+            todo.setRemindAt(todoDTO.getRemindAt());
+            todo.setTags(tagsOf(todoDTO));
+            if (todo.getTemplateId() == null) {
+                setRecurrence(todo, todoDTO);
+            }
+            return save(previous, todo);
+        });
     }
 
     public Todo updateTodoComplete(Long id)
     {
-        Todo todo = todoRepository.findTodoById(id).orElseThrow(() -> new NotFoundException("Not found"));
-        if(todo.isCompleted())
-        {
-            todo.setCompleted(false);
-        }else
-        {
-            todo.setCompleted(true);
+        return updateTodoComplete(id, null);
+    }
+
+    public Todo updateTodoComplete(Long id, Long expectedVersion)
+    {
+        if (id == null) {
+            throw new InvalidTodoRequestException("ID cannot be null");
+        }
+        return withRetry(id, expectedVersion == null, () -> {
+            Todo todo = todoRepository.findTodoById(id).orElseThrow(() -> NotFoundException.NOT_FOUND);
+            checkVersion(todo, expectedVersion);
+            Todo previous = todo.snapshot();
+            if(todo.isCompleted())
+            {
+                todo.setCompleted(false);
+            }else
+            {
+                todo.setCompleted(true);
+            }
+            Todo saved = save(previous, todo);
+            if (saved.isStatus()) {
+                adjustAncestors(saved.ancestorIds(), 0, saved.isCompleted() ? 1 : -1);
+            }
+            return saved;
+        });
+    }
+
+    /**
+     * Moves a todo with all its subtasks under another parent (or to the top level). The
+     * paths of the subtree are rewritten from one fetch of the subtree, and the counters
+     * of the old and new ancestors are adjusted with one statement each.
+     */
+    public Todo moveSubtree(Long id, ParentDTO parentDTO)
+    {
+        return withRetry(id, true, () -> {
+            Todo todo = todoRepository.findTodoById(id).filter(Todo::isStatus).orElseThrow(() -> NotFoundException.NOT_FOUND);
+            Long parentId = parentDTO.getParentId();
+            if (Objects.equals(parentId, todo.getParentId())) {
+                return todo;
+            }
+            String oldPath = todo.subtreePath();
+            String path = Todo.ROOT_PATH;
+            if (parentId != null) {
+                Todo parent = todoRepository.findTodoById(parentId).filter(Todo::isStatus).orElseThrow(() -> NotFoundException.NOT_FOUND);
+                path = parent.subtreePath();
+                if (path.startsWith(oldPath)) {
+                    throw new InvalidTodoRequestException("A todo cannot be moved under its own subtask");
+                }
+            }
+
+            List<Todo> descendants = todo.getSubtasks() > 0 ? todoRepository.findActiveSubtree(oldPath) : List.of();
+            List<Long> oldAncestors = todo.ancestorIds();
+            Todo previous = todo.snapshot();
+            todo.setParentId(parentId);
+            todo.setPath(path);
+            String newPath = todo.subtreePath();
+            int completed = todo.isCompleted() ? 1 : 0;
+            int depth = todo.ancestorIds().size();
+            for (Todo descendant : descendants) {
+                depth = Math.max(depth, descendant.ancestorIds().size() - oldAncestors.size() + todo.ancestorIds().size());
+                completed += descendant.isCompleted() ? 1 : 0;
+            }
+            if (depth >= MAX_DEPTH) {
+                throw new InvalidTodoRequestException("Subtasks can be nested at most " + MAX_DEPTH + " levels deep");
+            }
+
+            Todo saved = save(previous, todo);
+            saveAll(descendants, descendant -> descendant.setPath(newPath + descendant.getPath().substring(oldPath.length())));
+            // Common ancestors keep the subtree, only the diverging parts of the two paths change
+            List<Long> newAncestors = saved.ancestorIds();
+            List<Long> left = new ArrayList<>(oldAncestors);
+            left.removeAll(newAncestors);
+            List<Long> joined = new ArrayList<>(newAncestors);
+            joined.removeAll(oldAncestors);
+            int size = 1 + descendants.size();
+            adjustAncestors(left, -size, -completed);
+            adjustAncestors(joined, size, completed);
+            return saved;
+        });
+    }
+
+    /**
+     * Moves a todo directly after another one (or to the top) by giving it a position
+     * between its new neighbours, so only the moved row is written. When two neighbours
+     * are adjacent the active list is respaced first.
+     */
+    public Todo moveTodo(Long id, MoveDTO moveDTO)
+    {
+        return withRetry(id, true, () -> moveTodo(id, moveDTO, false));
+    }
+
+    private Todo moveTodo(Long id, MoveDTO moveDTO, boolean rebalanced)
+    {
+        Todo todo = todoRepository.findTodoById(id).filter(Todo::isStatus).orElseThrow(() -> NotFoundException.NOT_FOUND);
+        Long afterId = moveDTO.getAfterId();
+        if (id.equals(afterId)) {
+            return todo;
+        }
+        Todo before = null;
+        if (afterId != null) {
+            before = todoRepository.findTodoById(afterId).filter(Todo::isStatus).orElseThrow(() -> NotFoundException.NOT_FOUND);
+        }
+        Optional<Todo> next = before == null
+                ? todoRepository.findFirstByStatusTrueOrderByPositionAscIdAsc()
+                : todoRepository.findFirstByStatusTrueAndPositionGreaterThanOrderByPositionAscIdAsc(before.getPosition());
+        if (next.isPresent() && next.get().getId().equals(todo.getId())) {
+            return todo;
+        }
+
+        long position;
+        if (before != null && next.isPresent()) {
+            long gap = next.get().getPosition() - before.getPosition();
+            if (gap < 2) {
+                if (rebalanced) {
+                    throw new IllegalStateException("No free position after todo " + afterId);
+                }
+                rebalancePositions();
+                return moveTodo(id, moveDTO, true);
+            }
+            position = before.getPosition() + gap / 2;
+            if (gap / 2 < MIN_POSITION_GAP) {
+                rebalanceRequested.set(true);
+            }
+        } else if (before != null) {
+            position = before.getPosition() + POSITION_GAP;
+        } else if (next.isPresent()) {
+            position = next.get().getPosition() - POSITION_GAP;
+        } else {
+            position = POSITION_GAP;
+        }
+        Todo previous = todo.snapshot();
+        todo.setPosition(position);
+        return save(previous, todo);
+    }
+
+    @Scheduled(fixedDelayString = "${todo.position.rebalance-delay:PT30S}")
+    public void rebalanceIfRequested()
+    {
+        if (rebalanceRequested.compareAndSet(true, false)) {
+            rebalancePositions();
+        }
+    }
+
+    // Positions change without new versions, cached todos are dropped
+    private void rebalancePositions()
+    {
+        todoRepository.rebalancePositions(POSITION_GAP);
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(TodosRewrittenEvent.ALL_ACTIVE);
+        }
+    }
+
+    private static void checkVersion(Todo todo, Long expectedVersion)
+    {
+        if (expectedVersion != null && !expectedVersion.equals(todo.getVersion())) {
+            throw new ConflictException(todo);
         }
-        return todoRepository.save(todo);
     }
 
+    /**
+     * Runs a read-modify-write, each attempt in its own transaction. A concurrent update of
+     * the same todo fails the save; the operation is then re-run on fresh state when
+     * {@code retry} is set, otherwise, or once the retries are used up, the caller gets a
+     * conflict carrying the current todo.
+     */
+    private Todo withRetry(long id, boolean retry, Supplier<Todo> operation)
+    {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return inTransaction(operation);
+            } catch (OptimisticLockingFailureException e) {
+                if (!retry || attempt >= maxRetries) {
+                    throw new ConflictException(todoRepository.findTodoById(id).orElseThrow(() -> NotFoundException.NOT_FOUND));
+                }
+            }
+        }
+    }
+
+    // Changes spanning several rows (subtrees, ancestor counters) commit or roll back together
+    private <T> T inTransaction(Supplier<T> operation)
+    {
+        return transactions == null ? operation.get() : transactions.execute(status -> operation.get());
+    }
+
+    private static LinkedHashSet<String> tagsOf(TodoDTO todoDTO)
+    {
+        return todoDTO.getTags() == null ? new LinkedHashSet<>() : new LinkedHashSet<>(todoDTO.getTags());
+    }
+
+    private void setRecurrence(Todo todo, TodoDTO todoDTO)
+    {
+        String recurrence = todoDTO.getRecurrence();
+        if (recurrence != null) {
+            recurrenceExpander.validate(recurrence);
+            // The series starts at the due date, or now when there is none
+            if (todo.getDueAt() == null) {
+                todo.setDueAt(Instant.now());
+            }
+        }
+        todo.setRecurrence(recurrence);
+    }
+
+    // An occurrence as it would be stored, before it is
+    private static Todo occurrenceOf(Todo template, Instant at)
+    {
+        Todo occurrence = new Todo(null, template.getTitle(), false, true);
+        occurrence.setTags(new LinkedHashSet<>(template.getTags()));
+        occurrence.setPosition(template.getPosition());
+        occurrence.setTemplateId(template.getId());
+        occurrence.setOccurrenceAt(at);
+        occurrence.setDueAt(at);
+        if (template.getRemindAt() != null && template.getDueAt() != null) {
+            occurrence.setRemindAt(at.minus(Duration.between(template.getRemindAt(), template.getDueAt())));
+        }
+        return occurrence;
+    }
+
+    private void adjustAncestors(List<Long> ancestorIds, int subtasks, int completedSubtasks)
+    {
+        if (!ancestorIds.isEmpty() && (subtasks != 0 || completedSubtasks != 0)) {
+            todoRepository.adjustSubtasks(ancestorIds, subtasks, completedSubtasks);
+            // The counters change without new versions, cached ancestors are dropped
+            if (eventPublisher != null) {
+                eventPublisher.publishEvent(new TodosRewrittenEvent(List.copyOf(ancestorIds)));
+            }
+        }
+    }
+
+    // Applies a change to each todo and saves them in one batch, every change is published like a single save
+    private void saveAll(List<Todo> todos, Consumer<Todo> change)
+    {
+        if (todos.isEmpty()) {
+            return;
+        }
+        List<Todo> previous = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            previous.add(todo.snapshot());
+            change.accept(todo);
+        }
+        List<Todo> saved = todoRepository.saveAll(todos);
+        if (eventPublisher != null) {
+            for (int i = 0; i < saved.size(); i++) {
+                eventPublisher.publishEvent(new TodoChangedEvent(previous.get(i), saved.get(i)));
+            }
+        }
+    }
+
+    // Saves the todo and tells listeners (reminders, indexes) what changed
+    private Todo save(Todo previous, Todo todo)
+    {
+        Todo saved = todoRepository.save(todo);
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new TodoChangedEvent(previous, saved));
+        }
+        return saved;
+    }
 }
@@ -0,0 +1,81 @@
+package com.project.Todo.service;
+
+import com.project.Todo.dto.TodoStatsDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.repository.TodoStore;
+import com.project.Todo.tag.TagIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Todo counts kept as in-memory counters, so the stats endpoint never scans the table.
+ * Counters move with every {@link TodoChangedEvent} and are reconciled with the
+ * database at startup and periodically, which also repairs drift from changes made
+ * by other instances.
+ */
+@Slf4j
+@Component
+public class TodoStats {
+    private final TodoStore todoRepository;
+    private final TagIndex tagIndex;
+
+    private final LongAdder active = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+
+    public TodoStats(TodoStore todoRepository, TagIndex tagIndex) {
+        this.todoRepository = todoRepository;
+        this.tagIndex = tagIndex;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (event.previous() != null) {
+            counter(event.previous()).decrement();
+        }
+        counter(event.current()).increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${todo.stats.reconcile-delay:PT5M}", initialDelayString = "${todo.stats.reconcile-delay:PT5M}")
+    public void reconcile() {
+        long activeCount = todoRepository.countByStatusTrueAndCompletedFalse();
+        long completedCount = todoRepository.countByStatusTrueAndCompletedTrue();
+        long deletedCount = todoRepository.countByStatusFalse();
+        long drift = Math.abs(active.sum() - activeCount) + Math.abs(completed.sum() - completedCount)
+                + Math.abs(deleted.sum() - deletedCount);
+        reset(active, activeCount);
+        reset(completed, completedCount);
+        reset(deleted, deletedCount);
+        if (drift > 0) {
+            log.debug("Reconciled todo stats, counters were off by {}", drift);
+        }
+    }
+
+    public TodoStatsDTO getStats() {
+        long activeCount = active.sum();
+        long completedCount = completed.sum();
+        long deletedCount = deleted.sum();
+        return new TodoStatsDTO(activeCount + completedCount + deletedCount, activeCount, completedCount, deletedCount,
+                tagIndex.tagCounts());
+    }
+
+    private LongAdder counter(Todo todo) {
+        if (!todo.isStatus()) {
+            return deleted;
+        }
+        return todo.isCompleted() ? completed : active;
+    }
+
+    private static void reset(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+}
@@ -0,0 +1,429 @@
+package com.project.Todo.store;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.repository.TodoStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Keeps all todos in memory, for edge deployments and load tests without MySQL
+ * (todo.storage=memory, see the memory profile).
+ * <p>
+ * Todos live in {@link LongObjectMap}s striped by id, each behind its own lock, and active
+ * todos are additionally kept in a skip list in list order. Active recurring templates and
+ * generated occurrences (by template and time) have indexes of their own, so the recurrence
+ * queries do not scan every todo. Stored todos are never
+ * modified, callers always get copies, as they would get detached entities from JPA.
+ * Every save is appended to a {@link WriteAheadLog} before it becomes visible; the log is
+ * synced every {@code todo.store.sync-interval} (or on every write with
+ * {@code todo.store.sync-every-write}) and compacted into a snapshot once it outgrows
+ * {@code todo.store.snapshot-size}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.storage", havingValue = "memory")
+public class InMemoryTodoStore implements TodoStore {
+    private static final int STRIPES = 64;
+
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[STRIPES];
+    private final List<LongObjectMap<Todo>> stripes = new ArrayList<>(STRIPES);
+    private final ConcurrentSkipListMap<ActiveKey, Todo> active = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Todo> templates = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<OccurrenceKey, Todo> occurrences = new ConcurrentSkipListMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final WriteAheadLog writeAheadLog;
+    private final long snapshotBytes;
+
+    private record ActiveKey(long position, long id) implements Comparable<ActiveKey> {
+        @Override
+        public int compareTo(ActiveKey other) {
+            int order = Long.compare(position, other.position);
+            return order != 0 ? order : Long.compare(id, other.id);
+        }
+    }
+
+    private record OccurrenceKey(long templateId, Instant at, long id) implements Comparable<OccurrenceKey> {
+        @Override
+        public int compareTo(OccurrenceKey other) {
+            int order = Long.compare(templateId, other.templateId);
+            if (order == 0) {
+                order = at.compareTo(other.at);
+            }
+            return order != 0 ? order : Long.compare(id, other.id);
+        }
+
+        static OccurrenceKey of(Todo todo) {
+            return todo.getTemplateId() == null || todo.getOccurrenceAt() == null ? null
+                    : new OccurrenceKey(todo.getTemplateId(), todo.getOccurrenceAt(), todo.getId());
+        }
+    }
+
+    public InMemoryTodoStore(@Value("${todo.store.dir:data/store}") Path directory,
+                             @Value("${todo.store.sync-every-write:false}") boolean syncEveryWrite,
+                             @Value("${todo.store.snapshot-size:64MB}") DataSize snapshotSize) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+            stripes.add(new LongObjectMap<>(64));
+        }
+        this.writeAheadLog = new WriteAheadLog(directory, syncEveryWrite);
+        this.snapshotBytes = snapshotSize.toBytes();
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        writeAheadLog.recover(this::apply);
+        log.info("Recovered {} todos, {} active", count(todo -> true), active.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writeAheadLog.close();
+    }
+
+    @Override
+    public List<Todo> findByStatusTrue() {
+        List<Todo> result = new ArrayList<>();
+        for (Todo todo : active.values()) {
+            result.add(todo.snapshot());
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Todo> findTodoById(long id) {
+        return Optional.ofNullable(get(id)).map(Todo::snapshot);
+    }
+
+    @Override
+    public List<Todo> findAllById(Iterable<Long> ids) {
+        List<Todo> result = new ArrayList<>();
+        for (Long id : ids) {
+            Todo todo = get(id);
+            if (todo != null) {
+                result.add(todo.snapshot());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Assigns an id to new todos and bumps the version, failing when the todo was saved
+     * by someone else since it was read. The caller's todo gets the new id and version.
+     * Subtask counters are kept, like the non-updatable columns in the database.
+     */
+    @Override
+    public <S extends Todo> S save(S todo) {
+        if (todo.getId() == null) {
+            todo.setId(lastId.incrementAndGet());
+        } else {
+            lastId.accumulateAndGet(todo.getId(), Math::max);
+        }
+        long id = todo.getId();
+        ReentrantReadWriteLock.WriteLock lock = lock(id).writeLock();
+        lock.lock();
+        try {
+            Todo current = stripe(id).get(id);
+            if (current != null && !Objects.equals(current.getVersion(), todo.getVersion())) {
+                throw new OptimisticLockingFailureException("Todo " + id + " was updated concurrently");
+            }
+            Todo stored = todo.snapshot();
+            stored.setVersion(current == null ? 0L : current.getVersion() + 1);
+            stored.setSubtasks(current == null ? 0 : current.getSubtasks());
+            stored.setCompletedSubtasks(current == null ? 0 : current.getCompletedSubtasks());
+            writeAheadLog.append(stored);
+            replace(current, stored);
+            todo.setVersion(stored.getVersion());
+            return todo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <S extends Todo> List<S> saveAll(Iterable<S> todos) {
+        List<S> result = new ArrayList<>();
+        for (S todo : todos) {
+            result.add(save(todo));
+        }
+        return result;
+    }
+
+    @Override
+    public long findMaxActivePosition() {
+        Entry<ActiveKey, Todo> last = active.lastEntry();
+        return last == null ? 0 : last.getKey().position();
+    }
+
+    @Override
+    public Optional<Todo> findFirstByStatusTrueOrderByPositionAscIdAsc() {
+        return copyOf(active.firstEntry());
+    }
+
+    @Override
+    public Optional<Todo> findFirstByStatusTrueAndPositionGreaterThanOrderByPositionAscIdAsc(long position) {
+        return copyOf(active.higherEntry(new ActiveKey(position, Long.MAX_VALUE)));
+    }
+
+    @Override
+    public long countByStatusTrueAndCompletedFalse() {
+        return active.values().stream().filter(todo -> !todo.isCompleted()).count();
+    }
+
+    @Override
+    public long countByStatusTrueAndCompletedTrue() {
+        return active.values().stream().filter(Todo::isCompleted).count();
+    }
+
+    @Override
+    public long countByStatusFalse() {
+        return count(todo -> !todo.isStatus());
+    }
+
+    @Override
+    public List<Todo> findByStatusTrueAndCompletedFalseAndRemindAtGreaterThanEqualAndRemindAtLessThan(Instant from, Instant to) {
+        return findActive(todo -> !todo.isCompleted() && todo.getRemindAt() != null
+                && !todo.getRemindAt().isBefore(from) && todo.getRemindAt().isBefore(to));
+    }
+
+    @Override
+    public List<Todo> findByStatusTrueAndRecurrenceIsNotNull() {
+        List<Todo> result = new ArrayList<>();
+        for (Todo todo : templates.values()) {
+            result.add(todo.snapshot());
+        }
+        return result;
+    }
+
+    @Override
+    public List<Todo> findByStatusTrueAndDueAtGreaterThanEqualAndDueAtLessThan(Instant from, Instant to) {
+        return findActive(todo -> todo.getDueAt() != null && !todo.getDueAt().isBefore(from) && todo.getDueAt().isBefore(to));
+    }
+
+    @Override
+    public List<Todo> findByTemplateIdInAndOccurrenceAtGreaterThanEqualAndOccurrenceAtLessThan(Collection<Long> templateIds,
+                                                                                               Instant from, Instant to) {
+        List<Todo> result = new ArrayList<>();
+        if (!from.isBefore(to)) {
+            return result;
+        }
+        for (long templateId : new LinkedHashSet<>(templateIds)) {
+            for (Todo todo : occurrences.subMap(new OccurrenceKey(templateId, from, Long.MIN_VALUE),
+                    new OccurrenceKey(templateId, to, Long.MIN_VALUE)).values()) {
+                result.add(todo.snapshot());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Todo> findByTemplateIdAndOccurrenceAt(long templateId, Instant occurrenceAt) {
+        Entry<OccurrenceKey, Todo> entry = occurrences.ceilingEntry(new OccurrenceKey(templateId, occurrenceAt, Long.MIN_VALUE));
+        if (entry == null || entry.getKey().templateId() != templateId || !entry.getKey().at().equals(occurrenceAt)) {
+            return Optional.empty();
+        }
+        return copyOf(entry);
+    }
+
+    // Like the SQL update, this keeps versions as they are
+    @Override
+    public int rebalancePositions(long gap) {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.writeLock().lock();
+        }
+        try {
+            List<Todo> ordered = new ArrayList<>(active.values());
+            long position = 0;
+            for (Todo current : ordered) {
+                Todo stored = current.snapshot();
+                position += gap;
+                stored.setPosition(position);
+                writeAheadLog.append(stored);
+                replace(current, stored);
+            }
+            return ordered.size();
+        } finally {
+            for (ReentrantReadWriteLock lock : locks) {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<Todo> findActiveSubtree(String path) {
+        List<Todo> result = new ArrayList<>();
+        for (Todo todo : active.values()) {
+            if (todo.getPath() != null && todo.getPath().startsWith(path)) {
+                result.add(todo.snapshot());
+            }
+        }
+        result.sort(Comparator.comparing(Todo::getPath).thenComparingLong(Todo::getPosition).thenComparing(Todo::getId));
+        return result;
+    }
+
+    @Override
+    public int adjustSubtasks(Collection<Long> ids, int subtasks, int completedSubtasks) {
+        int updated = 0;
+        for (long id : ids) {
+            ReentrantReadWriteLock.WriteLock lock = lock(id).writeLock();
+            lock.lock();
+            try {
+                Todo current = stripe(id).get(id);
+                if (current == null) {
+                    continue;
+                }
+                Todo stored = current.snapshot();
+                stored.setSubtasks(current.getSubtasks() + subtasks);
+                stored.setCompletedSubtasks(current.getCompletedSubtasks() + completedSubtasks);
+                writeAheadLog.append(stored);
+                replace(current, stored);
+                updated++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return updated;
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("todos", count(todo -> true));
+        metrics.put("active", active.size());
+        metrics.put("logBytes", writeAheadLog.size());
+        return metrics;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.store.sync-interval:PT1S}")
+    public void sync() throws IOException {
+        writeAheadLog.sync();
+        if (writeAheadLog.size() > snapshotBytes) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Writes all todos to a snapshot and drops the logs it covers. Saves continue while
+     * the snapshot is written, each stripe is only locked while it is copied.
+     */
+    public synchronized void snapshot() throws IOException {
+        long generation = writeAheadLog.rotate();
+        List<Todo> all = new ArrayList<>();
+        forEach(all::add);
+        writeAheadLog.writeSnapshot(generation, all);
+        log.info("Wrote snapshot {} with {} todos", generation, all.size());
+    }
+
+    // Replays a recovered todo, later records of the same todo replace earlier ones
+    private void apply(Todo todo) {
+        long id = todo.getId();
+        lastId.accumulateAndGet(id, Math::max);
+        replace(stripe(id).get(id), todo);
+    }
+
+    // Listings are weakly consistent: one running while a todo moves may miss that todo
+    private void replace(Todo current, Todo stored) {
+        stripe(stored.getId()).put(stored.getId(), stored);
+        if (current != null && current.isStatus()) {
+            active.remove(new ActiveKey(current.getPosition(), current.getId()));
+        }
+        if (stored.isStatus()) {
+            active.put(new ActiveKey(stored.getPosition(), stored.getId()), stored);
+        }
+        if (current != null) {
+            templates.remove(current.getId());
+            OccurrenceKey occurrence = OccurrenceKey.of(current);
+            if (occurrence != null) {
+                occurrences.remove(occurrence);
+            }
+        }
+        if (stored.isStatus() && stored.getRecurrence() != null) {
+            templates.put(stored.getId(), stored);
+        }
+        OccurrenceKey occurrence = OccurrenceKey.of(stored);
+        if (occurrence != null) {
+            occurrences.put(occurrence, stored);
+        }
+    }
+
+    private Todo get(long id) {
+        ReentrantReadWriteLock.ReadLock lock = lock(id).readLock();
+        lock.lock();
+        try {
+            return stripe(id).get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Todo> findActive(Predicate<Todo> filter) {
+        List<Todo> result = new ArrayList<>();
+        for (Todo todo : active.values()) {
+            if (filter.test(todo)) {
+                result.add(todo.snapshot());
+            }
+        }
+        return result;
+    }
+
+    private long count(Predicate<Todo> filter) {
+        long[] count = new long[1];
+        forEach(todo -> {
+            if (filter.test(todo)) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    private void forEach(Consumer<Todo> action) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i].readLock().lock();
+            try {
+                stripes.get(i).forEach(action);
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+    }
+
+    private static Optional<Todo> copyOf(Entry<?, Todo> entry) {
+        return entry == null ? Optional.empty() : Optional.of(entry.getValue().snapshot());
+    }
+
+    private ReentrantReadWriteLock lock(long id) {
+        return locks[stripeIndex(id)];
+    }
+
+    private LongObjectMap<Todo> stripe(long id) {
+        return stripes.get(stripeIndex(id));
+    }
+
+    private static int stripeIndex(long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+}
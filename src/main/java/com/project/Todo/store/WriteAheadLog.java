@@ -0,0 +1,253 @@
+package com.project.Todo.store;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.entity.TodoCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable form of {@link InMemoryTodoStore}: snapshots of all todos plus logs of the
+ * todos saved since. Every record holds the full todo, so replaying a log on top of a
+ * snapshot taken while the log was already being written still ends in the latest state.
+ * <p>
+ * Files are numbered by generation. A snapshot of generation n covers everything before
+ * log n was started; recovery loads the newest snapshot and replays the logs from its
+ * generation on. Record layout: {@code [int length][int crc32][todo]}.
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+    private static final Pattern LOG_NAME = Pattern.compile("wal-(\\d{20})\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{20})\\.dat");
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private final Path directory;
+    private final boolean syncEveryWrite;
+
+    private FileChannel channel;
+    private long generation;
+    private long position;
+
+    WriteAheadLog(Path directory, boolean syncEveryWrite) {
+        this.directory = directory;
+        this.syncEveryWrite = syncEveryWrite;
+    }
+
+    /**
+     * Hands every stored todo to {@code apply}, oldest state first, and opens the newest log for appending.
+     */
+    synchronized void recover(Consumer<Todo> apply) throws IOException {
+        Files.createDirectories(directory);
+        List<Long> snapshots = generations(SNAPSHOT_NAME);
+        long snapshot = snapshots.isEmpty() ? -1 : snapshots.get(snapshots.size() - 1);
+        if (snapshot >= 0) {
+            Path path = snapshotPath(snapshot);
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+                long end = replay(file, apply);
+                if (end != file.size()) {
+                    throw new IOException("Corrupt snapshot " + path);
+                }
+            }
+        }
+
+        List<Long> logs = generations(LOG_NAME);
+        logs.removeIf(logGeneration -> logGeneration < snapshot);
+        generation = Math.max(snapshot, 0);
+        for (int i = 0; i < logs.size(); i++) {
+            Path path = logPath(logs.get(i));
+            FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long end = replay(file, apply);
+            if (end < file.size()) {
+                // Only the tail of a log written during a crash can be incomplete
+                log.warn("Truncating {} bytes of incomplete records in {}", file.size() - end, path);
+                file.truncate(end);
+            }
+            if (i == logs.size() - 1) {
+                channel = file;
+                generation = logs.get(i);
+                position = end;
+            } else {
+                file.close();
+            }
+        }
+        if (channel == null) {
+            channel = open(generation);
+            position = 0;
+        }
+    }
+
+    synchronized void append(Todo todo) {
+        try {
+            ByteBuffer record = frame(todo);
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            if (syncEveryWrite) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to " + logPath(generation), e);
+        }
+    }
+
+    synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    synchronized long size() {
+        return position;
+    }
+
+    /**
+     * Starts the next log. Todos saved from now on go to the new log, a snapshot of the
+     * returned generation must therefore be taken after this call.
+     */
+    synchronized long rotate() throws IOException {
+        FileChannel next = open(generation + 1);
+        channel.force(false);
+        channel.close();
+        channel = next;
+        position = 0;
+        return ++generation;
+    }
+
+    /**
+     * Writes the snapshot of a generation returned by {@link #rotate()} and removes the
+     * files it replaces. The snapshot only becomes visible once it is complete.
+     */
+    void writeSnapshot(long snapshotGeneration, Iterable<Todo> todos) throws IOException {
+        Path path = snapshotPath(snapshotGeneration);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            for (Todo todo : todos) {
+                ByteBuffer record = frame(todo);
+                if (record.remaining() > buffer.remaining()) {
+                    write(file, buffer);
+                }
+                if (record.remaining() > buffer.capacity()) {
+                    while (record.hasRemaining()) {
+                        file.write(record);
+                    }
+                } else {
+                    buffer.put(record);
+                }
+            }
+            write(file, buffer);
+            file.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (long old : generations(SNAPSHOT_NAME)) {
+            if (old < snapshotGeneration) {
+                Files.deleteIfExists(snapshotPath(old));
+            }
+        }
+        for (long old : generations(LOG_NAME)) {
+            if (old < snapshotGeneration) {
+                Files.deleteIfExists(logPath(old));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    // Applies all intact records and returns the offset after the last one
+    private static long replay(FileChannel file, Consumer<Todo> apply) throws IOException {
+        long size = file.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        while (offset + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(file, header, offset);
+            int length = header.getInt(0);
+            if (length <= 0 || offset + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readFully(file, body, offset + HEADER_BYTES);
+            crc.reset();
+            crc.update(body.array());
+            if ((int) crc.getValue() != header.getInt(Integer.BYTES)) {
+                break;
+            }
+            apply.accept(TodoCodec.decode(body.array()));
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private static ByteBuffer frame(Todo todo) {
+        byte[] body = TodoCodec.encode(todo);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + body.length);
+        record.putInt(body.length).putInt((int) crc.getValue()).put(body).flip();
+        return record;
+    }
+
+    private static void readFully(FileChannel file, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (file.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    private static void write(FileChannel file, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            file.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private FileChannel open(long logGeneration) throws IOException {
+        return FileChannel.open(logPath(logGeneration), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private List<Long> generations(Pattern name) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = name.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private Path logPath(long logGeneration) {
+        return directory.resolve(String.format("wal-%020d.log", logGeneration));
+    }
+
+    private Path snapshotPath(long snapshotGeneration) {
+        return directory.resolve(String.format("snapshot-%020d.dat", snapshotGeneration));
+    }
+}
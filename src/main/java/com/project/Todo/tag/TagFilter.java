@@ -0,0 +1,34 @@
+package com.project.Todo.tag;
+
+import com.project.Todo.entity.Todo;
+
+import java.util.Set;
+
+/**
+ * Tag combination to filter active todos by.
+ *
+ * @param all       todos must carry every one of these tags
+ * @param any       todos must carry at least one of these tags, ignored when empty
+ * @param none      todos must carry none of these tags
+ * @param completed completion state to match, {@code null} matches both
+ */
+public record TagFilter(Set<String> all, Set<String> any, Set<String> none, Boolean completed) {
+
+    public TagFilter {
+        all = all == null ? Set.of() : all;
+        any = any == null ? Set.of() : any;
+        none = none == null ? Set.of() : none;
+    }
+
+    /**
+     * Whether an active todo matches, going by its own tags and completion state.
+     */
+    public boolean matches(Todo todo) {
+        Set<String> tags = todo.getTags();
+        return todo.isStatus()
+                && (completed == null || completed == todo.isCompleted())
+                && tags.containsAll(all)
+                && (any.isEmpty() || any.stream().anyMatch(tags::contains))
+                && none.stream().noneMatch(tags::contains);
+    }
+}
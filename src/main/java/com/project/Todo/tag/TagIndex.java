@@ -0,0 +1,308 @@
+package com.project.Todo.tag;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.PeerChangedEvent;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.event.TodosRewrittenEvent;
+import com.project.Todo.repository.TodoStore;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of active todo ids per tag and for the completed flag. Filters are
+ * answered with bitmap intersections instead of database scans. The index is built from
+ * the database at startup and kept current from {@link TodoChangedEvent}s. Positions of
+ * active todos are kept too, so a limited filter returns the first matches in list order;
+ * it is rebuilt when the list is respaced.
+ * <p>
+ * Changes made by other instances reach the index as {@link PeerChangedEvent}s when
+ * {@code todo.cluster.enabled} is set, and the todos named are reloaded. Either way the index
+ * is rebuilt every {@code todo.tags.rebuild-interval}, so it is never behind for longer.
+ * <p>
+ * Roaring bitmaps hold 32-bit values, todo ids must stay below 2^31.
+ */
+@Slf4j
+@Component
+public class TagIndex {
+    private final TodoStore todoRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RoaringBitmap> byTag = new HashMap<>();
+    private final RoaringBitmap active = new RoaringBitmap();
+    private final RoaringBitmap completed = new RoaringBitmap();
+    private final Map<Integer, Long> positions = new HashMap<>();
+
+    public TagIndex(TodoStore todoRepository) {
+        this.todoRepository = todoRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${todo.tags.rebuild-interval:PT10M}", fixedDelayString = "${todo.tags.rebuild-interval:PT10M}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            byTag.clear();
+            active.clear();
+            completed.clear();
+            positions.clear();
+            List<Todo> todos = todoRepository.findByStatusTrue();
+            for (Todo todo : todos) {
+                add(todo);
+            }
+            byTag.values().forEach(RoaringBitmap::runOptimize);
+            active.runOptimize();
+            completed.runOptimize();
+            log.info("Tag index built from {} todos, {} tags", todos.size(), byTag.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.previous() != null) {
+                remove(event.previous());
+            }
+            if (event.current().isStatus()) {
+                add(event.current());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Positions are rewritten without events for each todo, counters do not matter here
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosRewritten(TodosRewrittenEvent event) {
+        if (event.allActive()) {
+            rebuild();
+        }
+    }
+
+    // Another instance changed these todos, they are reloaded; without ids the whole index is
+    @EventListener
+    public void onPeerChanged(PeerChangedEvent event) {
+        if (event.unknown()) {
+            rebuild();
+            return;
+        }
+        List<Todo> todos = todoRepository.findAllById(event.ids());
+        lock.writeLock().lock();
+        try {
+            for (long id : event.ids()) {
+                removeId(Math.toIntExact(id));
+            }
+            for (Todo todo : todos) {
+                if (todo.isStatus()) {
+                    add(todo);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the active todos matching the filter, in list order, the first {@code limit} of them.
+     */
+    public List<Long> filter(TagFilter filter, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        RoaringBitmap result;
+        FirstMatches matches;
+        lock.readLock().lock();
+        try {
+            result = active.clone();
+            if (filter.completed() != null) {
+                if (filter.completed()) {
+                    result.and(completed);
+                } else {
+                    result.andNot(completed);
+                }
+            }
+            for (String tag : filter.all()) {
+                RoaringBitmap tagged = byTag.get(tag);
+                if (tagged == null) {
+                    return List.of();
+                }
+                result.and(tagged);
+            }
+            if (!filter.any().isEmpty()) {
+                RoaringBitmap union = new RoaringBitmap();
+                for (String tag : filter.any()) {
+                    RoaringBitmap tagged = byTag.get(tag);
+                    if (tagged != null) {
+                        union.or(tagged);
+                    }
+                }
+                result.and(union);
+            }
+            for (String tag : filter.none()) {
+                RoaringBitmap tagged = byTag.get(tag);
+                if (tagged != null) {
+                    result.andNot(tagged);
+                }
+            }
+            // Ids come in id order, the first todos in the list win
+            matches = new FirstMatches(Math.min(limit, result.getCardinality()));
+            IntIterator iterator = result.getIntIterator();
+            while (iterator.hasNext()) {
+                int id = iterator.next();
+                matches.offer(positions.get(id), id);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches.ids();
+    }
+
+    /**
+     * Number of active todos per tag.
+     */
+    public Map<String, Integer> tagCounts() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            byTag.forEach((tag, tagged) -> counts.put(tag, tagged.getCardinality()));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Todo todo) {
+        int id = Math.toIntExact(todo.getId());
+        active.add(id);
+        positions.put(id, todo.getPosition());
+        if (todo.isCompleted()) {
+            completed.add(id);
+        }
+        for (String tag : todo.getTags()) {
+            byTag.computeIfAbsent(tag, t -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    // Without the todo its tags are unknown, so every tag is checked
+    private void removeId(int id) {
+        active.remove(id);
+        positions.remove(id);
+        completed.remove(id);
+        byTag.values().removeIf(tagged -> {
+            tagged.remove(id);
+            return tagged.isEmpty();
+        });
+    }
+
+    private void remove(Todo todo) {
+        int id = Math.toIntExact(todo.getId());
+        active.remove(id);
+        positions.remove(id);
+        completed.remove(id);
+        for (String tag : todo.getTags()) {
+            RoaringBitmap tagged = byTag.get(tag);
+            if (tagged != null) {
+                tagged.remove(id);
+                if (tagged.isEmpty()) {
+                    byTag.remove(tag);
+                }
+            }
+        }
+    }
+
+    /**
+     * The first matches in list order (position, then id), at most as many as it was created
+     * for. A max-heap on primitive arrays: its root is the last match kept, which a match
+     * earlier in the list replaces.
+     */
+    private static final class FirstMatches {
+        private final long[] positions;
+        private final int[] ids;
+        private int size;
+
+        FirstMatches(int capacity) {
+            positions = new long[capacity];
+            ids = new int[capacity];
+        }
+
+        void offer(long position, int id) {
+            if (size < ids.length) {
+                set(size, position, id);
+                siftUp(size++);
+            } else if (size > 0 && before(position, id, positions[0], ids[0])) {
+                set(0, position, id);
+                siftDown(0);
+            }
+        }
+
+        // Takes the root off until empty, which yields the matches last first
+        List<Long> ids() {
+            Long[] ordered = new Long[size];
+            while (size > 0) {
+                ordered[size - 1] = (long) ids[0];
+                size--;
+                set(0, positions[size], ids[size]);
+                siftDown(0);
+            }
+            return new ArrayList<>(List.of(ordered));
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!before(positions[parent], ids[parent], positions[i], ids[i])) {
+                    return;
+                }
+                swap(parent, i);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int last = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (before(positions[last], ids[last], positions[child], ids[child])) {
+                        last = child;
+                    }
+                }
+                if (last == i) {
+                    return;
+                }
+                swap(i, last);
+                i = last;
+            }
+        }
+
+        private void set(int i, long position, int id) {
+            positions[i] = position;
+            ids[i] = id;
+        }
+
+        private void swap(int a, int b) {
+            long position = positions[a];
+            int id = ids[a];
+            set(a, positions[b], ids[b]);
+            set(b, position, id);
+        }
+
+        private static boolean before(long position, int id, long otherPosition, int otherId) {
+            return position < otherPosition || position == otherPosition && id < otherId;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.Todo.tracing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends spans to a local file, one JSON object per line. Once the file outgrows
+ * {@code maxSize} it is moved to {@code <file>.1}, replacing the previous one, so at most
+ * twice {@code maxSize} is kept.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Path file;
+    private final long maxSize;
+    private OutputStream out;
+    private long size;
+
+    public FileSpanExporter(Path file, long maxSize) {
+        this.file = file;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            if (out == null) {
+                open();
+            }
+            for (SpanData span : spans) {
+                byte[] line = line(span);
+                out.write(line);
+                size += line.length;
+            }
+            out.flush();
+            if (size > maxSize) {
+                out.close();
+                out = null;
+                Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Could not write {} spans to {}", spans.size(), file, e);
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                out = null;
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(file);
+    }
+
+    static byte[] line(SpanData span) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (JsonGenerator json = JSON.createGenerator(buffer)) {
+            json.writeStartObject();
+            json.writeStringField("traceId", span.getTraceId());
+            json.writeStringField("spanId", span.getSpanId());
+            if (span.getParentSpanContext().isValid()) {
+                json.writeStringField("parentSpanId", span.getParentSpanId());
+            }
+            json.writeStringField("name", span.getName());
+            json.writeStringField("kind", span.getKind().name());
+            json.writeStringField("start", Instant.ofEpochSecond(0, span.getStartEpochNanos()).toString());
+            json.writeNumberField("durationMicros",
+                    TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()));
+            if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+                json.writeStringField("error", span.getStatus().getDescription());
+            }
+            json.writeObjectFieldStart("attributes");
+            for (var attribute : span.getAttributes().asMap().entrySet()) {
+                json.writeStringField(attribute.getKey().getKey(), String.valueOf(attribute.getValue()));
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        buffer.write('\n');
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.Todo.tracing;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.repository.TodoStore;
+import com.project.Todo.service.TodoService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Observes one call into a traced layer as {@code todo.<layer>}; its span is named
+ * {@code todo-<layer> <method>} (tracing turns camel case into hyphens, e.g. {@code todo-store find-todo-by-id}).
+ * Store calls also record how many todos they returned or updated as {@code todo.rows}.
+ */
+class LayerObservationInterceptor implements MethodInterceptor {
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    LayerObservationInterceptor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ObservationRegistry registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+        if (registry.isNoop()) {
+            return invocation.proceed();
+        }
+        Class<?> target = AopUtils.getTargetClass(invocation.getThis());
+        // JPA and in-memory stores show up under the interface they share
+        boolean store = TodoStore.class.isAssignableFrom(target);
+        String layer = store ? "store" : TodoService.class.isAssignableFrom(target) ? "service" : "api";
+        String method = invocation.getMethod().getName();
+        Observation observation = Observation.createNotStarted("todo." + layer, registry)
+                .contextualName("todo-" + layer + " " + method)
+                .lowCardinalityKeyValue("todo.layer", layer)
+                .lowCardinalityKeyValue("todo.method", method)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            Object result = invocation.proceed();
+            if (store) {
+                Integer rows = rowsOf(result);
+                if (rows != null) {
+                    observation.highCardinalityKeyValue("todo.rows", Integer.toString(rows));
+                }
+            }
+            return result;
+        } catch (Throwable t) {
+            observation.error(t);
+            throw t;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    // Counts (long) are not rows, updates (int) are
+    private static Integer rowsOf(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Todo) {
+            return 1;
+        }
+        if (result instanceof Integer updated) {
+            return updated;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.project.Todo.tracing;
+
+import com.project.Todo.controller.TodoAPI;
+import com.project.Todo.repository.TodoStore;
+import com.project.Todo.service.TodoService;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+
+/**
+ * Spans for the layers of a todo request: the server span of the HTTP request (Spring MVC),
+ * one span per public call into {@link TodoAPI} and {@link TodoService} and per {@link TodoStore} call,
+ * and the connection, statement and result set spans of the JDBC driver (datasource-micrometer).
+ * <p>
+ * {@code management.tracing.sampling.probability} picks the share of traces that are recorded.
+ * Recorded spans go to every {@link SpanExporter} bean: by default {@link FileSpanExporter}
+ * ({@code todo.tracing.exporter=file}), or {@link LoggingSpanExporter} ({@code log}), or only
+ * those declared elsewhere ({@code none}), such as the OTLP exporter Spring Boot adds when
+ * {@code management.otlp.tracing.endpoint} is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "management.tracing.enabled", matchIfMissing = true)
+public class TracingConfig {
+
+    @Bean
+    public static Advisor todoLayerTracingAdvisor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                if (TodoStore.class.isAssignableFrom(targetClass)) {
+                    // Only storage calls, not the store's own upkeep (sync, snapshots, metrics)
+                    return ReflectionUtils.findMethod(TodoStore.class, method.getName(), method.getParameterTypes()) != null;
+                }
+                return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+            }
+        };
+        pointcut.setClassFilter(type -> TodoAPI.class.isAssignableFrom(type)
+                || TodoService.class.isAssignableFrom(type)
+                || TodoStore.class.isAssignableFrom(type));
+        return new DefaultPointcutAdvisor(pointcut, new LayerObservationInterceptor(observationRegistry));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.tracing.exporter", havingValue = "file", matchIfMissing = true)
+    public FileSpanExporter fileSpanExporter(@Value("${todo.tracing.file:data/traces/spans.jsonl}") Path file,
+                                             @Value("${todo.tracing.file-max-size:64MB}") DataSize maxSize) {
+        return new FileSpanExporter(file, maxSize.toBytes());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.tracing.exporter", havingValue = "log")
+    public LoggingSpanExporter loggingSpanExporter() {
+        return new LoggingSpanExporter();
+    }
+}
@@ -0,0 +1,8 @@
+-- Schema previously created by ddl-auto=update; existing databases are baselined at this version.
+CREATE TABLE IF NOT EXISTS todo (
+    id        BIGINT      NOT NULL AUTO_INCREMENT,
+    title     VARCHAR(50),
+    completed BIT(1)      NOT NULL,
+    status    BIT(1)      NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,5 @@
+-- Index for findByStatusTrue: the list query reads only active rows. The entity selects every
+-- column, so each match is still looked up in the clustered index. Built online without blocking writes.
+ALTER TABLE todo
+    ADD INDEX idx_todo_status (status, completed, title),
+    ALGORITHM = INPLACE, LOCK = NONE;
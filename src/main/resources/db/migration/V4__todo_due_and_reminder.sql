@@ -0,0 +1,9 @@
+-- Due dates and reminders. Pending reminders are loaded one time window at a time.
+ALTER TABLE todo
+    ADD COLUMN due_at    DATETIME(6) NULL,
+    ADD COLUMN remind_at DATETIME(6) NULL,
+    ALGORITHM = INSTANT;
+
+ALTER TABLE todo
+    ADD INDEX idx_todo_reminder (status, completed, remind_at),
+    ALGORITHM = INPLACE, LOCK = NONE;
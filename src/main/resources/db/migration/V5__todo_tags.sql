@@ -0,0 +1,4 @@
+-- Tags, stored comma separated on the row; tag filters are served by the in-memory bitmap index.
+ALTER TABLE todo
+    ADD COLUMN tags VARCHAR(600) NULL,
+    ALGORITHM = INSTANT;
@@ -0,0 +1,4 @@
+-- Optimistic locking: every update checks and increments the row version.
+ALTER TABLE todo
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+    ALGORITHM = INSTANT;
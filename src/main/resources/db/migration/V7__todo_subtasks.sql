@@ -0,0 +1,12 @@
+-- Subtasks: materialized ancestor path plus subtree counters kept up to date on every write.
+-- The path is ASCII (digits and '/'), so the index stays within InnoDB's key length limit.
+ALTER TABLE todo
+    ADD COLUMN parent_id BIGINT NULL,
+    ADD COLUMN path VARCHAR(1024) CHARACTER SET ascii NOT NULL DEFAULT '/',
+    ADD COLUMN subtasks INT NOT NULL DEFAULT 0,
+    ADD COLUMN completed_subtasks INT NOT NULL DEFAULT 0,
+    ALGORITHM = INSTANT;
+
+ALTER TABLE todo
+    ADD INDEX idx_todo_path (path, status),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,12 @@
+-- Recurring todos: the rule lives on a template row, occurrences are only stored once
+-- completed or edited. The unique key keeps an occurrence from being materialized twice.
+ALTER TABLE todo
+    ADD COLUMN recurrence VARCHAR(120) NULL,
+    ADD COLUMN template_id BIGINT NULL,
+    ADD COLUMN occurrence_at DATETIME(6) NULL,
+    ALGORITHM = INSTANT;
+
+ALTER TABLE todo
+    ADD UNIQUE INDEX uk_todo_occurrence (template_id, occurrence_at),
+    ADD INDEX idx_todo_due (status, due_at),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,231 @@
+package com.project.Todo.audit;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.exception.AuditBacklogException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditLog auditLog;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (auditLog != null) {
+            auditLog.stop();
+        }
+    }
+
+    // Every change of a todo is returned in order, with its change type and field values
+    @Test
+    public void test_history_records_changes_in_order() throws Exception {
+        auditLog = start(DataSize.ofMegabytes(1));
+        Todo created = new Todo(1L, "Write report", false, true);
+        created.setDueAt(Instant.parse("2030-01-01T10:00:00Z"));
+        Todo completed = new Todo(1L, "Write report", true, true);
+        Todo deleted = new Todo(1L, "Write report", true, false);
+
+        auditLog.onTodoChanged(new TodoChangedEvent(null, created));
+        auditLog.onTodoChanged(new TodoChangedEvent(created.snapshot(), new Todo(2L, "Other", false, true)));
+        auditLog.onTodoChanged(new TodoChangedEvent(created.snapshot(), completed));
+        auditLog.onTodoChanged(new TodoChangedEvent(completed.snapshot(), deleted));
+
+        List<AuditRecord> history = awaitHistory(1L, 3);
+        assertEquals(List.of(AuditChange.CREATED, AuditChange.UPDATED, AuditChange.DELETED),
+                history.stream().map(AuditRecord::change).toList());
+        assertEquals("Write report", history.get(0).todo().getTitle());
+        assertEquals(Instant.parse("2030-01-01T10:00:00Z"), history.get(0).todo().getDueAt());
+        assertTrue(history.get(1).todo().isCompleted());
+        assertFalse(history.get(2).todo().isStatus());
+        assertEquals(1, awaitHistory(2L, 1).size());
+        assertTrue(auditLog.history(3L).isEmpty());
+    }
+
+    // A restart rebuilds the index from the segments and drops a record cut off mid-write
+    @Test
+    public void test_restart_recovers_index_and_truncates_partial_record() throws Exception {
+        auditLog = start(DataSize.ofKilobytes(1));
+        for (int i = 0; i < 40; i++) {
+            Todo todo = new Todo(1L, "Title " + i, false, true);
+            auditLog.onTodoChanged(new TodoChangedEvent(i == 0 ? null : todo.snapshot(), todo));
+            // One change per batch, so segments roll over
+            awaitHistory(1L, i + 1);
+        }
+        auditLog.stop();
+
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 1);
+        Path last = segments.get(segments.size() - 1);
+        long size = Files.size(last);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 100, 1, 2}));
+        }
+
+        auditLog = start(DataSize.ofKilobytes(1));
+        List<AuditRecord> history = auditLog.history(1L);
+        assertEquals(40, history.size());
+        assertEquals("Title 39", history.get(39).todo().getTitle());
+        assertEquals(size, Files.size(last));
+    }
+
+    // Sealed segments with only expired records are deleted, the segment being written is kept
+    @Test
+    public void test_retention_removes_old_segments() throws Exception {
+        auditLog = new AuditLog(directory, DataSize.ofKilobytes(1), Duration.ZERO, 16, Duration.ofSeconds(1));
+        auditLog.start();
+        for (int i = 0; i < 40; i++) {
+            Todo todo = new Todo(1L, "Title " + i, false, true);
+            auditLog.onTodoChanged(new TodoChangedEvent(todo.snapshot(), todo));
+            awaitHistory(1L, i + 1);
+        }
+        Thread.sleep(10);
+
+        auditLog.compact();
+
+        assertEquals(1, segments().size());
+        List<AuditRecord> history = auditLog.history(1L);
+        assertFalse(history.isEmpty());
+        assertTrue(history.size() < 40);
+        assertEquals("Title 39", history.get(history.size() - 1).todo().getTitle());
+    }
+
+    // Records before the cutoff are removed from the segment they share with newer ones
+    @Test
+    public void test_compaction_trims_expired_records() throws Exception {
+        auditLog = start(DataSize.ofKilobytes(1));
+        write(0, 30);
+        Thread.sleep(5);
+        long cutoff = System.currentTimeMillis();
+        Thread.sleep(5);
+        write(30, 60);
+
+        auditLog.compact(cutoff);
+
+        List<AuditRecord> history = auditLog.history(1L);
+        assertEquals(30, history.size());
+        assertEquals("Title 30", history.get(0).todo().getTitle());
+        assertEquals("Title 59", history.get(29).todo().getTitle());
+        auditLog.stop();
+        auditLog = start(DataSize.ofKilobytes(1));
+        assertEquals(history.stream().map(record -> record.todo().getTitle()).toList(),
+                auditLog.history(1L).stream().map(record -> record.todo().getTitle()).toList());
+    }
+
+    // After the segment size was raised, the small sealed segments are merged into larger ones
+    @Test
+    public void test_compaction_merges_small_segments() throws Exception {
+        auditLog = start(DataSize.ofKilobytes(1));
+        write(0, 60);
+        auditLog.onTodoChanged(new TodoChangedEvent(null, new Todo(2L, "Other", false, true)));
+        awaitHistory(2L, 1);
+        auditLog.stop();
+        int before = segments().size();
+
+        auditLog = start(DataSize.ofKilobytes(64));
+        auditLog.compact(0);
+
+        assertTrue(segments().size() < before);
+        List<AuditRecord> history = auditLog.history(1L);
+        assertEquals(60, history.size());
+        for (int i = 0; i < 60; i++) {
+            assertEquals("Title " + i, history.get(i).todo().getTitle());
+        }
+        assertEquals(1, auditLog.history(2L).size());
+        auditLog.stop();
+        auditLog = start(DataSize.ofKilobytes(64));
+        assertEquals(60, auditLog.history(1L).size());
+    }
+
+    // A change that finds no place in time fails and is rolled back, the places it held are given back
+    @Test
+    public void test_full_queue_rejects_change_in_transaction() {
+        // Not started, so nothing takes records off the queue of 16
+        AuditLog stalled = new AuditLog(directory, DataSize.ofMegabytes(1), Duration.ofDays(365), 16, Duration.ofMillis(50));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            for (long id = 1; id <= 16; id++) {
+                stalled.onTodoChanged(new TodoChangedEvent(null, new Todo(id, "Todo " + id, false, true)));
+            }
+            assertThrows(AuditBacklogException.class,
+                    () -> stalled.onTodoChanged(new TodoChangedEvent(null, new Todo(17L, "Todo 17", false, true))));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1L, stalled.metrics().get("rejected"));
+        assertEquals(0, stalled.metrics().get("queued"));
+        stalled.onTodoChanged(new TodoChangedEvent(null, new Todo(18L, "Todo 18", false, true)));
+        assertEquals(1, stalled.metrics().get("queued"));
+        assertEquals(0L, stalled.metrics().get("overBound"));
+    }
+
+    // Without a transaction the change is already applied, its record is kept past the bound
+    @Test
+    public void test_full_queue_keeps_change_without_transaction() {
+        AuditLog stalled = new AuditLog(directory, DataSize.ofMegabytes(1), Duration.ofDays(365), 16, Duration.ofMillis(10));
+        for (long id = 1; id <= 20; id++) {
+            stalled.onTodoChanged(new TodoChangedEvent(null, new Todo(id, "Todo " + id, false, true)));
+        }
+
+        assertEquals(20, stalled.metrics().get("queued"));
+        assertEquals(4L, stalled.metrics().get("overBound"));
+    }
+
+    // One change per batch, so segments roll over
+    private void write(int from, int to) throws InterruptedException {
+        for (int i = from; i < to; i++) {
+            Todo todo = new Todo(1L, "Title " + i, false, true);
+            auditLog.onTodoChanged(new TodoChangedEvent(i == 0 ? null : todo.snapshot(), todo));
+            awaitHistory(1L, i + 1);
+        }
+    }
+
+    private AuditLog start(DataSize segmentSize) throws IOException {
+        AuditLog log = new AuditLog(directory, segmentSize, Duration.ofDays(365), 16, Duration.ofSeconds(1));
+        log.start();
+        return log;
+    }
+
+    private List<AuditRecord> awaitHistory(long todoId, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<AuditRecord> history = auditLog.history(todoId);
+        while (history.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+            history = auditLog.history(todoId);
+        }
+        assertEquals(size, history.size());
+        return history;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.project.Todo.cache;
+
+import com.project.Todo.entity.Todo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TodoCacheTest {
+
+    @TempDir
+    Path directory;
+
+    // Todos evicted from the hot tier are still served, from the off-heap tier
+    @Test
+    public void test_demoted_todos_are_read_from_warm_tier() {
+        TodoCache cache = new TodoCache(10, Duration.ofMinutes(5), ByteBuffer.allocateDirect(64 * 1024));
+        for (long id = 1; id <= 30; id++) {
+            cache.put(todo(id, 1L));
+        }
+        for (long id = 1; id <= 30; id++) {
+            assertEquals("Todo " + id, cache.get(id).orElseThrow().getTitle());
+        }
+        Map<String, Object> metrics = cache.metrics();
+        assertEquals(30L, metrics.get("hits"));
+        assertTrue((Long) warm(cache).get("hits") >= 20);
+        assertTrue((Integer) hot(cache).get("size") <= 10);
+    }
+
+    // Invalidations reach both tiers
+    @Test
+    public void test_invalidation_reaches_warm_tier() throws IOException {
+        TodoCache cache = new TodoCache(10, Duration.ofMinutes(5),
+                OffHeapTier.allocate(64 * 1024, directory.resolve("cache/todos.bin").toString()));
+        for (long id = 1; id <= 30; id++) {
+            cache.put(todo(id, 1L));
+        }
+        for (long id = 1; id <= 30; id++) {
+            cache.invalidate(id, 2L);
+        }
+        for (long id = 1; id <= 30; id++) {
+            assertTrue(cache.get(id).isEmpty());
+        }
+        cache.put(todo(7L, 2L));
+        assertEquals(2L, cache.get(7L).orElseThrow().getVersion());
+    }
+
+    // Todos read over and over keep their place while a stream of one-off reads passes through
+    @Test
+    public void test_frequent_todos_survive_scan() {
+        // Room for about 20 todos off the heap, fewer than the 20 frequent ones and the scan between their reads
+        TodoCache cache = new TodoCache(10, Duration.ofMinutes(5), ByteBuffer.allocateDirect(20 * OffHeapTier.BLOCK_SIZE));
+        for (int round = 0; round < 5; round++) {
+            for (long id = 1; id <= 20; id++) {
+                read(cache, id);
+            }
+        }
+        int hits = 0;
+        for (int i = 0; i < 400; i++) {
+            read(cache, 1000 + i);
+            if (read(cache, 1 + i % 20) && i >= 200) {
+                hits++;
+            }
+        }
+        assertTrue(hits > 150, "frequent todos hit " + hits + " of 200 times");
+        assertTrue((Long) warm(cache).get("rejections") > 0);
+    }
+
+    private static boolean read(TodoCache cache, long id) {
+        if (cache.get(id).isPresent()) {
+            return true;
+        }
+        cache.put(todo(id, 1L));
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> hot(TodoCache cache) {
+        return (Map<String, Object>) cache.metrics().get("hot");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> warm(TodoCache cache) {
+        return (Map<String, Object>) cache.metrics().get("warm");
+    }
+
+    private static Todo todo(long id, long version) {
+        Todo todo = new Todo(id, "Todo " + id, false, true);
+        todo.setVersion(version);
+        return todo;
+    }
+}
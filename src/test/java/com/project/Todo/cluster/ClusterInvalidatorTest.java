@@ -0,0 +1,145 @@
+package com.project.Todo.cluster;
+
+import com.project.Todo.cache.TodoCache;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.PeerChangedEvent;
+import com.project.Todo.event.TodoChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterInvalidatorTest {
+
+    private ClusterInvalidator first;
+    private ClusterInvalidator second;
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws IOException, InterruptedException {
+        if (second != null) {
+            second.stop();
+        }
+        if (first != null) {
+            first.stop();
+        }
+    }
+
+    // A change committed on one node evicts the todo from the other node's cache
+    @Test
+    public void test_change_invalidates_peer_cache() throws IOException, InterruptedException {
+        TodoCache firstCache = cache();
+        first = new ClusterInvalidator(firstCache, events::add, 0, List.of(), Duration.ofMillis(50), 1024);
+        first.start();
+        second = new ClusterInvalidator(cache(), events::add, 0, List.of("127.0.0.1:" + first.localPort()), Duration.ofMillis(50), 1024);
+        second.start();
+        firstCache.put(todo(1L, 3L));
+        assertTrue(firstCache.get(1L).isPresent());
+
+        second.onTodoChanged(new TodoChangedEvent(todo(1L, 3L), todo(1L, 4L)));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (firstCache.get(1L).isPresent() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(firstCache.get(1L).isEmpty());
+        // A read that started before the change cannot put the old version back
+        firstCache.put(todo(1L, 3L));
+        assertTrue(firstCache.get(1L).isEmpty());
+        firstCache.put(todo(1L, 4L));
+        assertEquals(4L, firstCache.get(1L).orElseThrow().getVersion());
+    }
+
+    // Late invalidations are ignored, a skipped sequence number clears the cache
+    @Test
+    public void test_reordered_and_lost_datagrams() throws IOException {
+        TodoCache todoCache = cache();
+        first = new ClusterInvalidator(todoCache, events::add, 0, List.of(), Duration.ofSeconds(1), 1024);
+        first.start();
+        todoCache.put(todo(1L, 5L));
+        todoCache.put(todo(2L, 1L));
+
+        first.apply(datagram(42L, 1, 1L, 4L));
+        assertTrue(todoCache.get(1L).isPresent());
+        first.apply(datagram(42L, 2, 3L, 1L));
+        assertTrue(todoCache.get(2L).isPresent());
+
+        first.apply(datagram(42L, 4, 3L, 2L));
+        assertTrue(todoCache.get(1L).isEmpty());
+        assertTrue(todoCache.get(2L).isEmpty());
+        assertEquals(1L, first.metrics().get("gaps"));
+        assertEquals(List.of(new PeerChangedEvent(List.of(1L)), new PeerChangedEvent(List.of(3L)),
+                PeerChangedEvent.UNKNOWN, new PeerChangedEvent(List.of(3L))), events);
+    }
+
+    // A peer first heard after its first datagram may have sent invalidations this node missed
+    @Test
+    public void test_unknown_peer_past_first_sequence_is_a_gap() throws IOException {
+        TodoCache todoCache = cache();
+        first = new ClusterInvalidator(todoCache, events::add, 0, List.of(), Duration.ofSeconds(1), 1024);
+        first.start();
+        todoCache.put(todo(1L, 5L));
+
+        first.apply(datagram(42L, 1, 3L, 1L), 0);
+        assertTrue(todoCache.get(1L).isPresent());
+        first.apply(datagram(43L, 7, 3L, 1L), 0);
+        assertTrue(todoCache.get(1L).isEmpty());
+        assertEquals(1L, first.metrics().get("gaps"));
+    }
+
+    // Peers that stopped sending are forgotten, one that comes back counts as a gap
+    @Test
+    public void test_silent_peers_are_pruned() throws IOException {
+        TodoCache todoCache = cache();
+        first = new ClusterInvalidator(todoCache, events::add, 0, List.of(), Duration.ofSeconds(1), 1024);
+        first.start();
+        long stale = ClusterInvalidator.STALE_HEARTBEATS * 1000L + 1;
+
+        first.apply(datagram(42L, 1, 3L, 1L), 1000);
+        first.apply(datagram(43L, 1, 3L, 1L), 1000);
+        assertEquals(2, first.metrics().get("knownPeerNodes"));
+        first.apply(datagram(43L, 2, 3L, 1L), 1000 + stale / 2);
+        first.apply(datagram(43L, 3, 3L, 1L), 1000 + stale);
+        assertEquals(1, first.metrics().get("knownPeerNodes"));
+        assertEquals(0L, first.metrics().get("gaps"));
+
+        first.apply(datagram(42L, 2, 3L, 1L), 1000 + stale);
+        assertEquals(1L, first.metrics().get("gaps"));
+    }
+
+    // Todos rewritten without a new version are dropped whatever version is cached
+    @Test
+    public void test_rewritten_todo_is_dropped() throws IOException {
+        TodoCache todoCache = cache();
+        first = new ClusterInvalidator(todoCache, events::add, 0, List.of(), Duration.ofSeconds(1), 1024);
+        first.start();
+        todoCache.put(todo(1L, 5L));
+
+        first.apply(datagram(42L, 1, 1L, ClusterInvalidator.EVICT));
+        assertTrue(todoCache.get(1L).isEmpty());
+        todoCache.put(todo(1L, 5L));
+        assertTrue(todoCache.get(1L).isPresent());
+    }
+
+    private static TodoCache cache() {
+        return new TodoCache(100, Duration.ofMinutes(5));
+    }
+
+    private static ByteBuffer datagram(long node, long sequence, long id, long version) {
+        ByteBuffer buffer = ByteBuffer.allocate(38);
+        buffer.putInt(0x54444f49).putLong(node).putLong(sequence).putShort((short) 1).putLong(id).putLong(version);
+        return buffer.flip();
+    }
+
+    private static Todo todo(long id, long version) {
+        Todo todo = new Todo(id, "Todo " + id, false, true);
+        todo.setVersion(version);
+        return todo;
+    }
+}
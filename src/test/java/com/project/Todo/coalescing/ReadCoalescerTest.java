@@ -0,0 +1,133 @@
+package com.project.Todo.coalescing;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadCoalescerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    // Reads arriving while the query runs share its result, each as its own copy
+    @Test
+    public void test_concurrent_reads_share_one_query() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(Duration.ofSeconds(5));
+        List<Future<Optional<Todo>>> reads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            reads.add(executor.submit(() -> coalescer.todo(1L, blockingQuery())));
+        }
+        awaitQueries(1);
+        Thread.sleep(200);
+        release.countDown();
+
+        List<Todo> todos = new ArrayList<>();
+        for (Future<Optional<Todo>> read : reads) {
+            Todo todo = read.get(5, TimeUnit.SECONDS).orElseThrow();
+            assertEquals("Shared", todo.getTitle());
+            assertTrue(todos.stream().noneMatch(other -> other == todo));
+            todos.add(todo);
+        }
+        assertEquals(1, queries.get());
+        assertEquals(7L, coalescer.metrics().get("savedQueries"));
+    }
+
+    // A committed change drops the query in flight, later reads do not get the result from before it
+    @Test
+    public void test_write_drops_query_in_flight() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(Duration.ofSeconds(5));
+        Future<Optional<Todo>> before = executor.submit(() -> coalescer.todo(1L, blockingQuery()));
+        awaitQueries(1);
+
+        coalescer.onTodoChanged(new TodoChangedEvent(todo(), todo()));
+        Future<Optional<Todo>> after = executor.submit(() -> coalescer.todo(1L, blockingQuery()));
+        awaitQueries(2);
+        release.countDown();
+
+        assertTrue(before.get(5, TimeUnit.SECONDS).isPresent());
+        assertTrue(after.get(5, TimeUnit.SECONDS).isPresent());
+        assertEquals(0L, coalescer.metrics().get("savedQueries"));
+        assertEquals(1L, coalescer.metrics().get("droppedByWrites"));
+    }
+
+    // Waiting is bounded, and a failed query fails the reads waiting for it
+    @Test
+    public void test_timeout_and_failure() throws Exception {
+        ReadCoalescer impatient = new ReadCoalescer(Duration.ofMillis(50));
+        executor.submit(() -> impatient.activeTodos(failingQuery()));
+        awaitQueries(1);
+        assertEquals(List.of(), impatient.activeTodos(List::of));
+        assertEquals(1L, impatient.metrics().get("timeouts"));
+
+        ReadCoalescer patient = new ReadCoalescer(Duration.ofSeconds(5));
+        Future<List<Todo>> leader = executor.submit(() -> patient.activeTodos(failingQuery()));
+        awaitQueries(2);
+        Future<List<Todo>> follower = executor.submit(() -> patient.activeTodos(List::of));
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<List<Todo>> read : List.of(leader, follower)) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> read.get(5, TimeUnit.SECONDS));
+            assertEquals("Database is down", failure.getCause().getMessage());
+        }
+    }
+
+    private Supplier<List<Todo>> failingQuery() {
+        return () -> {
+            queries.incrementAndGet();
+            await();
+            throw new IllegalStateException("Database is down");
+        };
+    }
+
+    private Supplier<Optional<Todo>> blockingQuery() {
+        return () -> {
+            queries.incrementAndGet();
+            await();
+            return Optional.of(todo());
+        };
+    }
+
+    private void await() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitQueries(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queries.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static Todo todo() {
+        Todo todo = new Todo(1L, "Shared", false, true);
+        todo.setVersion(1L);
+        return todo;
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.Todo.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PoolMetricsTest {
+
+    // Acquisitions, usage and timeouts reported by Hikari add up to averages and maxima
+    @Test
+    public void test_snapshot_aggregates_tracker_events() {
+        PoolMetrics poolMetrics = new PoolMetrics();
+        IMetricsTracker tracker = poolMetrics.create("todo", new PoolStats(0) {
+            @Override
+            protected void update() {
+                totalConnections = 10;
+                idleConnections = 7;
+                activeConnections = 3;
+                pendingThreads = 1;
+                maxConnections = 10;
+            }
+        });
+        tracker.recordConnectionCreatedMillis(5);
+        tracker.recordConnectionAcquiredNanos(1_000_000);
+        tracker.recordConnectionAcquiredNanos(3_000_000);
+        tracker.recordConnectionUsageMillis(10);
+        tracker.recordConnectionUsageMillis(30);
+        tracker.recordConnectionTimeout();
+
+        Map<String, Object> snapshot = poolMetrics.snapshot();
+        assertEquals(3, snapshot.get("active"));
+        assertEquals(7, snapshot.get("idle"));
+        assertEquals(1, snapshot.get("pendingThreads"));
+        assertEquals(2L, snapshot.get("acquired"));
+        assertEquals(2_000L, snapshot.get("avgWaitMicros"));
+        assertEquals(3_000L, snapshot.get("maxWaitMicros"));
+        assertEquals(20L, snapshot.get("avgUsageMillis"));
+        assertEquals(1L, snapshot.get("timeouts"));
+        assertEquals(1L, snapshot.get("connectionsCreated"));
+    }
+
+    // Nothing recorded yet: no division by zero
+    @Test
+    public void test_empty_snapshot() {
+        Map<String, Object> snapshot = new PoolMetrics().snapshot();
+        assertEquals(0L, snapshot.get("acquired"));
+        assertEquals(0L, snapshot.get("avgWaitMicros"));
+        assertFalse(snapshot.containsKey("active"));
+    }
+}
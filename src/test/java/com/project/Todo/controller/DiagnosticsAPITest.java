@@ -0,0 +1,45 @@
+package com.project.Todo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class DiagnosticsAPITest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Absent with in-memory storage
+    @Autowired
+    private ObjectProvider<JdbcTemplate> jdbcTemplate;
+
+    // Pool and statement cache with a database, the store without one; the query guard in both
+    @Test
+    public void test_diagnostics_sections() throws Exception {
+        mockMvc.perform(get("/api/todo/")).andExpect(status().isOk());
+
+        if (jdbcTemplate.getIfAvailable() != null) {
+            mockMvc.perform(get("/api/diagnostics/"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.pool.acquired").isNumber())
+                    .andExpect(jsonPath("$.statementCache.scope").value("server"))
+                    .andExpect(jsonPath("$.queryGuard").exists());
+        } else {
+            mockMvc.perform(get("/api/diagnostics/"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.pool").doesNotExist())
+                    .andExpect(jsonPath("$.store.active").isNumber())
+                    .andExpect(jsonPath("$.queryGuard").exists());
+        }
+    }
+}
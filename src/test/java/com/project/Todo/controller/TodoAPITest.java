@@ -43,7 +43,7 @@ public class TodoAPITest {
         List<Todo> todos = Arrays.asList(new Todo());
         when(todoService.getAll()).thenReturn(todos);
 
-        ResponseEntity response = todoAPI.getTodo();
+        ResponseEntity response = todoAPI.getTodo(null, null, 1000);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(todos, response.getBody());
@@ -58,7 +58,7 @@ public class TodoAPITest {
         List<Todo> activeTodos = Arrays.asList(new Todo(), new Todo());
         when(todoService.getAll()).thenReturn(activeTodos);
 
-        ResponseEntity response = todoAPI.getTodo();
+        ResponseEntity response = todoAPI.getTodo(null, null, 1000);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(activeTodos, response.getBody());
@@ -73,7 +73,7 @@ public class TodoAPITest {
         List<Todo> emptyTodos = Collections.emptyList();
         when(todoService.getAll()).thenReturn(emptyTodos);
 
-        ResponseEntity response = todoAPI.getTodo();
+        ResponseEntity response = todoAPI.getTodo(null, null, 1000);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(emptyTodos, response.getBody());
@@ -88,7 +88,7 @@ public class TodoAPITest {
         when(todoService.getAll()).thenThrow(new RuntimeException("Unexpected error"));
 
         assertThrows(RuntimeException.class, () -> {
-            todoAPI.getTodo();
+            todoAPI.getTodo(null, null, 1000);
         });
     }
 
@@ -110,7 +110,7 @@ public class TodoAPITest {
 
         when(todoService.createTodo(todoDTO)).thenReturn(expectedTodo);
 
-        ResponseEntity response = todoAPI.createTodo(todoDTO);
+        ResponseEntity response = todoAPI.createTodo(todoDTO, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedTodo, response.getBody());
@@ -134,7 +134,7 @@ public class TodoAPITest {
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
             System.out.println("haha");
         } else {
-            ResponseEntity response = todoAPI.createTodo(todoDTO);
+            ResponseEntity response = todoAPI.createTodo(todoDTO, null);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
     }
@@ -155,7 +155,7 @@ public class TodoAPITest {
             ResponseEntity response = new ResponseEntity<>(bindingResult.getAllErrors(), HttpStatus.BAD_REQUEST);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         } else {
-            ResponseEntity response = todoAPI.createTodo(todoDTO);
+            ResponseEntity response = todoAPI.createTodo(todoDTO, null);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
 
@@ -178,7 +178,7 @@ public class TodoAPITest {
             ResponseEntity response = new ResponseEntity<>(bindingResult.getAllErrors(), HttpStatus.BAD_REQUEST);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         } else {
-            ResponseEntity response = todoAPI.createTodo(todoDTO);
+            ResponseEntity response = todoAPI.createTodo(todoDTO, null);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
 
@@ -201,7 +201,7 @@ public class TodoAPITest {
             ResponseEntity response = new ResponseEntity<>(bindingResult.getAllErrors(), HttpStatus.BAD_REQUEST);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         } else {
-            ResponseEntity response = todoAPI.createTodo(todoDTO);
+            ResponseEntity response = todoAPI.createTodo(todoDTO, null);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
 
@@ -214,7 +214,7 @@ public class TodoAPITest {
         TodoService todoService = mock(TodoService.class);
         TodoAPI todoAPI = new TodoAPI(todoService);
 
-        ResponseEntity response = todoAPI.createTodo(null);
+        ResponseEntity response = todoAPI.createTodo(null, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         verify(todoService, never()).createTodo(any(TodoDTO.class));
@@ -236,7 +236,7 @@ public class TodoAPITest {
 
         when(todoService.deleteTodo(1L)).thenReturn(mockTodo);
 
-        ResponseEntity response = todoAPI.deleteTodo(1L);
+        ResponseEntity response = todoAPI.deleteTodo(1L, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockTodo, response.getBody());
@@ -256,7 +256,7 @@ public class TodoAPITest {
 
         when(todoService.deleteTodo(1L)).thenReturn(mockTodo);
 
-        ResponseEntity response = todoAPI.deleteTodo(1L);
+        ResponseEntity response = todoAPI.deleteTodo(1L, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockTodo, response.getBody());
@@ -273,7 +273,7 @@ public class TodoAPITest {
         when(todoService.deleteTodo(999L)).thenThrow(new NotFoundException("Not found"));
 
         assertThrows(NotFoundException.class, () -> {
-            todoAPI.deleteTodo(999L);
+            todoAPI.deleteTodo(999L, null, null);
         });
 
         verify(todoService).deleteTodo(999L);
@@ -292,7 +292,7 @@ public class TodoAPITest {
 
         when(todoService.deleteTodo(Long.MAX_VALUE)).thenReturn(mockTodo);
 
-        ResponseEntity response = todoAPI.deleteTodo(Long.MAX_VALUE);
+        ResponseEntity response = todoAPI.deleteTodo(Long.MAX_VALUE, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockTodo, response.getBody());
@@ -308,7 +308,7 @@ public class TodoAPITest {
         String invalidId = "abc";
 
         assertThrows(NumberFormatException.class, () -> {
-            todoAPI.deleteTodo(Long.parseLong(invalidId));
+            todoAPI.deleteTodo(Long.parseLong(invalidId), null, null);
         });
 
         verify(todoService, never()).deleteTodo(anyLong());
@@ -327,7 +327,7 @@ public class TodoAPITest {
 
         when(todoService.deleteTodo(1L)).thenReturn(mockTodo);
 
-        ResponseEntity response = todoAPI.deleteTodo(1L);
+        ResponseEntity response = todoAPI.deleteTodo(1L, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockTodo, response.getBody());
@@ -352,7 +352,7 @@ public class TodoAPITest {
 
         when(todoService.updateTodoById(1L, todoDTO)).thenReturn(updatedTodo);
 
-        ResponseEntity response = todoAPI.updateTodo(1L, todoDTO);
+        ResponseEntity response = todoAPI.updateTodo(1L, todoDTO, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedTodo, response.getBody());
@@ -371,7 +371,7 @@ public class TodoAPITest {
         when(todoService.updateTodoById(999L, todoDTO)).thenThrow(new NotFoundException("Not found"));
 
         assertThrows(NotFoundException.class, () -> {
-            todoAPI.updateTodo(999L, todoDTO);
+            todoAPI.updateTodo(999L, todoDTO, null, null);
         });
 
         verify(todoService).updateTodoById(999L, todoDTO);
@@ -399,7 +399,7 @@ public class TodoAPITest {
             );
             assertEquals(ConstraintViolationException.class, thrown.getClass());
         } else {
-            ResponseEntity response = todoAPI.updateTodo(1L, todoDTO);
+            ResponseEntity response = todoAPI.updateTodo(1L, todoDTO, null, null);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
 
@@ -428,7 +428,7 @@ public class TodoAPITest {
             );
             assertEquals(ConstraintViolationException.class, thrown.getClass());
         } else {
-            ResponseEntity response = todoAPI.updateTodo(1L, todoDTO);
+            ResponseEntity response = todoAPI.updateTodo(1L, todoDTO, null, null);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
 
@@ -457,7 +457,7 @@ public class TodoAPITest {
             );
             assertEquals(ConstraintViolationException.class, thrown.getClass());
         } else {
-            ResponseEntity response = todoAPI.updateTodo(1L, todoDTO);
+            ResponseEntity response = todoAPI.updateTodo(1L, todoDTO, null, null);
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
 
@@ -476,7 +476,7 @@ public class TodoAPITest {
         when(todoService.updateTodoById(todoId, todoDTO)).thenThrow(new IllegalArgumentException("TodoDTO cannot be null"));
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            todoAPI.updateTodo(todoId, todoDTO);
+            todoAPI.updateTodo(todoId, todoDTO, null, null);
         });
 
         assertEquals("TodoDTO cannot be null", exception.getMessage());
@@ -503,7 +503,7 @@ public class TodoAPITest {
         ReflectionTestUtils.setField(controller, "todoService", todoService);
 
         // Act
-        ResponseEntity response = controller.updateTodoComplete(todoId);
+        ResponseEntity response = controller.updateTodoComplete(todoId, null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -519,7 +519,7 @@ public class TodoAPITest {
         when(todoService.updateTodoComplete(999L)).thenThrow(new NotFoundException("Not found"));
 
         assertThrows(NotFoundException.class, () -> {
-            todoAPI.updateTodoComplete(999L);
+            todoAPI.updateTodoComplete(999L, null, null);
         });
 
         verify(todoService).updateTodoComplete(999L);
@@ -534,7 +534,7 @@ public class TodoAPITest {
         when(todoService.updateTodoComplete(null)).thenThrow(new IllegalArgumentException("ID cannot be null"));
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            todoAPI.updateTodoComplete(null);
+            todoAPI.updateTodoComplete(null, null, null);
         });
 
         assertEquals("ID cannot be null", exception.getMessage());
@@ -550,7 +550,7 @@ public class TodoAPITest {
         String invalidId = "invalid_id";
 
         assertThrows(NumberFormatException.class, () -> {
-            todoAPI.updateTodoComplete(Long.parseLong(invalidId));
+            todoAPI.updateTodoComplete(Long.parseLong(invalidId), null, null);
         });
 
         verify(todoService, never()).updateTodoComplete(anyLong());
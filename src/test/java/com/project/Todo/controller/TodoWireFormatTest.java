@@ -0,0 +1,61 @@
+package com.project.Todo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TodoWireFormatTest {
+
+    private static final CBORMapper CBOR = new CBORMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // A CBOR batch is read and answered in CBOR, with the same fields as JSON
+    @Test
+    public void test_cbor_batch_create() throws Exception {
+        byte[] body = CBOR.writeValueAsBytes(List.of(
+                Map.of("title", "First", "tags", List.of("cbor")),
+                Map.of("title", "Second")));
+
+        MvcResult result = mockMvc.perform(post("/api/todo/batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode todos = CBOR.readTree(result.getResponse().getContentAsByteArray());
+        assertEquals(2, todos.size());
+        assertEquals("First", todos.get(0).get("title").asText());
+        assertEquals("cbor", todos.get(0).get("tags").get(0).asText());
+        assertTrue(todos.get(1).get("id").asLong() > todos.get(0).get("id").asLong());
+        assertFalse(todos.get(0).has("status"));
+    }
+
+    // Without an Accept header the answer stays JSON
+    @Test
+    public void test_json_is_default() throws Exception {
+        mockMvc.perform(get("/api/todo/"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
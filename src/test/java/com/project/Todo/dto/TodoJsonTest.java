@@ -0,0 +1,53 @@
+package com.project.Todo.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.Todo.config.JacksonConfig;
+import com.project.Todo.entity.Todo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class TodoJsonTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modules(new JacksonConfig().blackbirdModule(), new JacksonConfig().todoJsonModule())
+            .build();
+
+    // Internal status flag is not part of the response
+    @Test
+    public void test_status_is_not_serialized() throws Exception {
+        String json = objectMapper.writeValueAsString(new Todo(1L, "Task 1", false, true));
+
+        assertTrue(json.startsWith("{\"id\":1,\"title\":\"Task 1\",\"completed\":false"));
+        assertFalse(json.contains("status"));
+    }
+
+    // Bytes per list response and serialization time per item
+    @Test
+    public void test_list_serialization_size_and_time() throws Exception {
+        List<Todo> todos = new ArrayList<>();
+        for (long i = 0; i < 10000; i++) {
+            todos.add(new Todo(i, "Task " + i, i % 2 == 0, true));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            objectMapper.writeValueAsBytes(todos);
+        }
+        int rounds = 50;
+        long start = System.nanoTime();
+        byte[] body = null;
+        for (int i = 0; i < rounds; i++) {
+            body = objectMapper.writeValueAsBytes(todos);
+        }
+        long nsPerItem = (System.nanoTime() - start) / ((long) rounds * todos.size());
+
+        log.info("List of {} todos: {} bytes, {} ns per item", todos.size(), body.length, nsPerItem);
+        assertFalse(new String(body).contains("status"));
+    }
+}
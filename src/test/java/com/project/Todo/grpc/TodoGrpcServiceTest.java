@@ -0,0 +1,179 @@
+package com.project.Todo.grpc;
+
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.grpc.proto.BulkCreateResponse;
+import com.project.Todo.grpc.proto.ListRequest;
+import com.project.Todo.grpc.proto.TodoChange;
+import com.project.Todo.grpc.proto.TodoId;
+import com.project.Todo.grpc.proto.TodoItem;
+import com.project.Todo.grpc.proto.TodoRequest;
+import com.project.Todo.grpc.proto.TodoServiceGrpc;
+import com.project.Todo.grpc.proto.UpdateRequest;
+import com.project.Todo.grpc.proto.VersionedId;
+import com.project.Todo.grpc.proto.WatchRequest;
+import com.project.Todo.service.TodoService;
+import com.project.Todo.store.InMemoryTodoStore;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TodoGrpcServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryTodoStore store;
+    private TodoGrpcService grpcService;
+    private Server server;
+    private ManagedChannel channel;
+    private TodoServiceGrpc.TodoServiceBlockingStub blocking;
+    private TodoServiceGrpc.TodoServiceStub async;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        store = new InMemoryTodoStore(directory, false, DataSize.ofMegabytes(64));
+        store.recover();
+        TodoService todoService = new TodoService();
+        grpcService = new TodoGrpcService(todoService, Validation.buildDefaultValidatorFactory().getValidator(), 1024);
+        ApplicationEventPublisher eventPublisher = event -> grpcService.onTodoChanged((TodoChangedEvent) event);
+        ReflectionTestUtils.setField(todoService, "todoRepository", store);
+        ReflectionTestUtils.setField(todoService, "eventPublisher", eventPublisher);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(grpcService).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        blocking = TodoServiceGrpc.newBlockingStub(channel);
+        async = TodoServiceGrpc.newStub(channel);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        store.close();
+    }
+
+    // Unary calls behave like their REST counterparts, errors included
+    @Test
+    public void test_unary_calls() {
+        TodoItem created = blocking.create(TodoRequest.newBuilder().setTitle("Buy milk").addTags("home").build());
+        assertEquals("Buy milk", created.getTitle());
+        assertEquals(List.of("home"), created.getTagsList());
+
+        TodoItem toggled = blocking.toggle(VersionedId.newBuilder().setId(created.getId()).build());
+        assertTrue(toggled.getCompleted());
+        assertEquals(toggled, blocking.get(TodoId.newBuilder().setId(created.getId()).build()));
+
+        StatusRuntimeException stale = assertThrows(StatusRuntimeException.class, () -> blocking.update(UpdateRequest.newBuilder()
+                .setId(created.getId())
+                .setTodo(TodoRequest.newBuilder().setTitle("Buy oat milk"))
+                .setExpectedVersion(created.getVersion())
+                .build()));
+        assertEquals(Status.Code.ABORTED, stale.getStatus().getCode());
+
+        StatusRuntimeException invalid = assertThrows(StatusRuntimeException.class,
+                () -> blocking.create(TodoRequest.newBuilder().setTitle("").build()));
+        assertEquals(Status.Code.INVALID_ARGUMENT, invalid.getStatus().getCode());
+
+        blocking.delete(VersionedId.newBuilder().setId(created.getId()).build());
+        StatusRuntimeException missing = assertThrows(StatusRuntimeException.class,
+                () -> blocking.get(TodoId.newBuilder().setId(created.getId()).build()));
+        assertEquals(Status.Code.NOT_FOUND, missing.getStatus().getCode());
+    }
+
+    // A client stream creates todos in chunks, the list streams them back in order
+    @Test
+    public void test_bulk_create_and_list() throws Exception {
+        int count = TodoGrpcService.BULK_CHUNK * 2 + 7;
+        CompletableFuture<BulkCreateResponse> response = new CompletableFuture<>();
+        StreamObserver<TodoRequest> requests = async.bulkCreate(observer(response));
+        for (int i = 0; i < count; i++) {
+            requests.onNext(TodoRequest.newBuilder().setTitle("Todo " + i).build());
+        }
+        requests.onCompleted();
+
+        BulkCreateResponse created = response.get(10, TimeUnit.SECONDS);
+        assertEquals(count, created.getCreated());
+
+        List<Long> listed = new ArrayList<>();
+        Iterator<TodoItem> items = blocking.list(ListRequest.getDefaultInstance());
+        items.forEachRemaining(item -> listed.add(item.getId()));
+        assertEquals(created.getIdsList(), listed);
+    }
+
+    // Watchers receive committed changes with their kind
+    @Test
+    public void test_watch_changes() throws Exception {
+        BlockingQueue<TodoChange> changes = new LinkedBlockingQueue<>();
+        async.watchChanges(WatchRequest.getDefaultInstance(), new StreamObserver<>() {
+            @Override
+            public void onNext(TodoChange change) {
+                changes.add(change);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (grpcService.watcherCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        TodoItem created = blocking.create(TodoRequest.newBuilder().setTitle("Watched").build());
+        blocking.toggle(VersionedId.newBuilder().setId(created.getId()).build());
+        blocking.delete(VersionedId.newBuilder().setId(created.getId()).build());
+
+        assertEquals(TodoChange.Kind.CREATED, changes.poll(5, TimeUnit.SECONDS).getKind());
+        TodoChange toggled = changes.poll(5, TimeUnit.SECONDS);
+        assertEquals(TodoChange.Kind.UPDATED, toggled.getKind());
+        assertTrue(toggled.getTodo().getCompleted());
+        assertEquals(TodoChange.Kind.DELETED, changes.poll(5, TimeUnit.SECONDS).getKind());
+    }
+
+    private static <T> StreamObserver<T> observer(CompletableFuture<T> result) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+    }
+}
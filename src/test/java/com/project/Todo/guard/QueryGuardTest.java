@@ -0,0 +1,64 @@
+package com.project.Todo.guard;
+
+import com.project.Todo.exception.StatementBudgetExceededException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryGuardTest {
+
+    private final QueryGuard guard = new QueryGuard(3, 2, 200, true);
+
+    // The statement over the request's budget fails, the ones before it do not
+    @Test
+    public void test_statement_budget() {
+        guard.begin("GET /api/todo/ (TodoAPI#getTodo)", null);
+        guard.statement("select 1");
+        guard.statement("select 2");
+        guard.statement("select 3");
+        StatementBudgetExceededException exceeded = assertThrows(StatementBudgetExceededException.class,
+                () -> guard.statement("select 4"));
+        assertTrue(exceeded.getMessage().startsWith("GET /api/todo/ (TodoAPI#getTodo) ran 4 statements"), exceeded.getMessage());
+        guard.end();
+
+        assertEquals(1L, guard.metrics().get("violations"));
+        assertEquals(4L, guard.metrics().get("maxRequestStatements"));
+    }
+
+    // The same statement again and again is a query per row
+    @Test
+    public void test_repeated_statement() {
+        guard.begin("PUT /api/todo/{id}/parent (TodoAPI#moveSubtree)", null);
+        guard.statement("select * from todo where id=?");
+        guard.statement("select * from todo where id=?");
+        StatementBudgetExceededException exceeded = assertThrows(StatementBudgetExceededException.class,
+                () -> guard.statement("select * from todo where id=?"));
+        assertTrue(exceeded.getMessage().contains("the same statement 3 times"), exceeded.getMessage());
+        guard.end();
+    }
+
+    // Rows written in JDBC batches are not a query per row, each batch still counts as a statement
+    @Test
+    public void test_batches_are_not_repeats() {
+        guard.begin("DELETE /api/todo/{id} (TodoAPI#deleteTodo)", null);
+        guard.statement("update todo set status=? where id=? and version=?", true);
+        guard.statement("update todo set status=? where id=? and version=?", true);
+        guard.statement("update todo set status=? where id=? and version=?", true);
+        StatementBudgetExceededException exceeded = assertThrows(StatementBudgetExceededException.class,
+                () -> guard.statement("update todo set status=? where id=? and version=?", true));
+        assertTrue(exceeded.getMessage().contains("4 statements"), exceeded.getMessage());
+        guard.end();
+    }
+
+    // Statements of scheduled tasks and other threads without a request are not budgeted
+    @Test
+    public void test_statements_outside_requests() {
+        for (int i = 0; i < 10; i++) {
+            guard.statement("select 1");
+        }
+        guard.completed("select 1", 500);
+
+        assertEquals(0L, guard.metrics().get("violations"));
+        assertEquals(1L, guard.metrics().get("slowStatements"));
+    }
+}
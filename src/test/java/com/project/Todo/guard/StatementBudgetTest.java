@@ -0,0 +1,69 @@
+package com.project.Todo.guard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every endpoint through the full stack with todo.query-guard.fail set, as in all test runs:
+ * a request over its statement budget would fail here with 500.
+ */
+@SpringBootTest(properties = "todo.store.dir=target/test-store/budget-${random.uuid}")
+@AutoConfigureMockMvc
+public class StatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryGuard queryGuard;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void test_endpoints_stay_within_budget() throws Exception {
+        assertEquals(true, queryGuard.metrics().get("fail"));
+        long violations = (Long) queryGuard.metrics().get("violations");
+
+        long project = id(perform(post("/api/todo/"), "{\"title\":\"Budget project\",\"tags\":[\"budget\"]}"));
+        long task = id(perform(post("/api/todo/"), "{\"title\":\"Budget task\",\"parentId\":" + project + "}"));
+        perform(post("/api/todo/batch"), "[{\"title\":\"Budget one\"},{\"title\":\"Budget two\"}]");
+        perform(get("/api/todo/"), null);
+        perform(get("/api/todo/" + project), null);
+        perform(get("/api/todo/" + project + "/subtree"), null);
+        perform(get("/api/todo/filter?any=budget"), null);
+        perform(get("/api/todo/stats"), null);
+        perform(get("/api/todo/?from=2030-01-01T00:00:00Z&to=2030-02-01T00:00:00Z"), null);
+        perform(put("/api/todo/" + project), "{\"title\":\"Budget project renamed\"}");
+        perform(put("/api/todo/setcomplete/" + task), null);
+        perform(put("/api/todo/" + task + "/move"), "{\"afterId\":null}");
+        perform(put("/api/todo/" + task + "/parent"), "{\"parentId\":null}");
+        perform(delete("/api/todo/" + project), null);
+
+        assertEquals(violations, queryGuard.metrics().get("violations"));
+    }
+
+    private String perform(MockHttpServletRequestBuilder request, String body) throws Exception {
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(body);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    private long id(String todo) throws Exception {
+        return objectMapper.readTree(todo).get("id").asLong();
+    }
+}
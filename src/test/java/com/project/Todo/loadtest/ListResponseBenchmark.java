@@ -0,0 +1,99 @@
+package com.project.Todo.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Body bytes and latency of a large todo list over HTTP/1.1 without compression, with gzip,
+ * and over HTTP/2 (h2c) with gzip, against the {@code http2} profile. Each mode fetches the
+ * list {@code loadtest.list-requests} times from {@code loadtest.list-concurrency} clients.
+ */
+@Tag("load")
+@ActiveProfiles({"memory", "http2"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "todo.store.dir=target/loadtest/store-${random.uuid}",
+        "todo.audit.dir=target/loadtest/audit-${random.uuid}",
+        "logging.level.root=WARN"
+})
+public class ListResponseBenchmark {
+
+    private final int todos = Integer.getInteger("loadtest.list-size", 5000);
+    private final int requests = Integer.getInteger("loadtest.list-requests", 500);
+    private final int concurrency = Integer.getInteger("loadtest.list-concurrency", 16);
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    public void test_list_bytes_and_latency() throws Exception {
+        HttpClient seeder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (int i = 0; i < todos; i++) {
+            HttpRequest create = HttpRequest.newBuilder(uri()).header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"Benchmark todo " + i + "\",\"tags\":[\"bench\",\"list\"]}"))
+                    .build();
+            assertEquals(200, seeder.send(create, HttpResponse.BodyHandlers.discarding()).statusCode());
+        }
+
+        System.out.printf("%n%d todos, %d list requests per mode, %d concurrent%n", todos, requests, concurrency);
+        System.out.printf("%-16s %12s %10s %10s %10s%n", "mode", "body bytes", "p50 us", "p99 us", "max us");
+        long identity = measure("HTTP/1.1", HttpClient.Version.HTTP_1_1, false);
+        long gzip = measure("HTTP/1.1 gzip", HttpClient.Version.HTTP_1_1, true);
+        long http2 = measure("HTTP/2 gzip", HttpClient.Version.HTTP_2, true);
+        assertTrue(gzip < identity, "gzip responses are not smaller");
+        assertTrue(http2 < identity, "HTTP/2 responses are not compressed");
+    }
+
+    // Returns the body size of one response as received, compressed or not
+    private long measure(String mode, HttpClient.Version version, boolean gzip) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(version).build();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri()).GET();
+        if (gzip) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        HttpRequest request = builder.build();
+        HttpResponse<byte[]> first = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, first.statusCode());
+        assertEquals(gzip, first.headers().firstValue("Content-Encoding").filter("gzip"::equals).isPresent(), mode);
+        if (version == HttpClient.Version.HTTP_2) {
+            assertEquals(HttpClient.Version.HTTP_2, first.version(), "h2c upgrade was refused");
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        List<CompletableFuture<Void>> clients = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            int share = requests / concurrency;
+            clients.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < share; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    latency.record((System.nanoTime() - start) / 1000);
+                }
+            }));
+        }
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+        System.out.printf("%-16s %12d %10d %10d %10d%n", mode, first.body().length,
+                latency.percentile(0.5), latency.percentile(0.99), latency.max());
+        return first.body().length;
+    }
+
+    private URI uri() {
+        return URI.create("http://localhost:" + port + "/api/todo/");
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.Todo.loadtest;
+
+import com.project.Todo.TodoApplication;
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.guard.QueryGuard;
+import com.project.Todo.service.TodoService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL statements and throughput of a read-heavy mix (70% reads by id, 20% list reads, 10%
+ * toggles) through {@link TodoService}, with and without the Hibernate second-level cache.
+ * Runs against the configured MySQL database; statements are counted by {@link QueryGuard}.
+ */
+@Tag("load")
+public class SecondLevelCacheBenchmark {
+
+    private final int todos = Integer.getInteger("loadtest.l2-todos", 200);
+    private final int operations = Integer.getInteger("loadtest.l2-operations", 20000);
+
+    private record Result(long statements, double opsPerSecond) {
+    }
+
+    @Test
+    public void test_read_heavy_mix() {
+        System.out.printf("%n%d todos, %d operations: 70%% get, 20%% list, 10%% toggle%n", todos, operations);
+        System.out.printf("%-14s %12s %12s %12s%n", "mode", "statements", "per op", "ops/s");
+        Result uncached = run(false);
+        Result cached = run(true);
+        assertTrue(cached.statements() < uncached.statements() / 2,
+                "second-level cache saved too few statements: " + cached.statements() + " vs " + uncached.statements());
+    }
+
+    private Result run(boolean secondLevelCache) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("todo.l2-cache.enabled=" + secondLevelCache,
+                        "todo.audit.dir=target/loadtest/audit-" + UUID.randomUUID(),
+                        "logging.level.root=WARN")
+                .run()) {
+            TodoService todoService = context.getBean(TodoService.class);
+            QueryGuard queryGuard = context.getBean(QueryGuard.class);
+            List<TodoDTO> batch = new ArrayList<>(todos);
+            for (int i = 0; i < todos; i++) {
+                TodoDTO todoDTO = new TodoDTO();
+                todoDTO.setTitle("Benchmark todo " + i);
+                batch.add(todoDTO);
+            }
+            List<Long> ids = todoService.createTodos(batch).stream().map(Todo::getId).toList();
+
+            Random random = new Random(42);
+            long before = (Long) queryGuard.metrics().get("statements");
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                int roll = random.nextInt(100);
+                long id = ids.get(random.nextInt(ids.size()));
+                if (roll < 70) {
+                    todoService.getTodo(id);
+                } else if (roll < 90) {
+                    todoService.getAll();
+                } else {
+                    todoService.updateTodoComplete(id);
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long statements = (Long) queryGuard.metrics().get("statements") - before;
+            for (long id : ids) {
+                todoService.deleteTodo(id);
+            }
+
+            Result result = new Result(statements, operations / seconds);
+            System.out.printf("%-14s %12d %12.2f %12.0f%n", secondLevelCache ? "L2 cache" : "no L2 cache",
+                    statements, (double) statements / operations, result.opsPerSecond());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.project.Todo.loadtest;
+
+import com.project.Todo.TodoApplication;
+import com.project.Todo.dto.MoveDTO;
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.service.TodoService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput and latency of the same mix (50% reads by id, 20% list reads, 15% toggles,
+ * 10% creates, 5% moves) through {@link TodoService} on the in-memory store and on JPA with
+ * the configured MySQL database, which fails unless the in-memory store has ten times the
+ * throughput. {@code -Dloadtest.stores=memory} runs the in-memory store alone, without a database.
+ */
+@Tag("load")
+public class StoreBenchmark {
+
+    private final int todos = Integer.getInteger("loadtest.store-todos", 500);
+    private final int operations = Integer.getInteger("loadtest.store-operations", 20000);
+    private final List<String> stores = List.of(System.getProperty("loadtest.stores", "memory,jpa").split(","));
+
+    private record Result(double opsPerSecond, long p50, long p99) {
+    }
+
+    @Test
+    public void test_store_mix() {
+        System.out.printf("%n%d todos, %d operations: 50%% get, 20%% list, 15%% toggle, 10%% create, 5%% move%n",
+                todos, operations);
+        System.out.printf("%-8s %12s %10s %10s%n", "store", "ops/s", "p50 us", "p99 us");
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String store : stores) {
+            results.put(store, run(store.trim()));
+        }
+        // The in-memory store is meant to beat JPA by an order of magnitude
+        if (results.containsKey("memory") && results.containsKey("jpa")) {
+            assertTrue(results.get("memory").opsPerSecond() >= 10 * results.get("jpa").opsPerSecond(),
+                    "in-memory store is less than 10x the throughput of JPA: " + results);
+        }
+    }
+
+    private Result run(String store) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TodoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("todo.audit.dir=target/loadtest/audit-" + UUID.randomUUID(),
+                        "todo.store.dir=target/loadtest/store-" + UUID.randomUUID(),
+                        "logging.level.root=WARN");
+        if (store.equals("memory")) {
+            builder.profiles("memory");
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            TodoService todoService = context.getBean(TodoService.class);
+            List<TodoDTO> batch = new ArrayList<>(todos);
+            for (int i = 0; i < todos; i++) {
+                batch.add(todoDTO("Benchmark todo " + i));
+            }
+            List<Long> ids = new ArrayList<>(todoService.createTodos(batch).stream().map(Todo::getId).toList());
+
+            LatencyHistogram histogram = new LatencyHistogram();
+            Random random = new Random(42);
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                int roll = random.nextInt(100);
+                long id = ids.get(random.nextInt(ids.size()));
+                long operationStart = System.nanoTime();
+                if (roll < 50) {
+                    todoService.getTodo(id);
+                } else if (roll < 70) {
+                    todoService.getAll();
+                } else if (roll < 85) {
+                    todoService.updateTodoComplete(id);
+                } else if (roll < 95) {
+                    ids.add(todoService.createTodo(todoDTO("Created todo " + i)).getId());
+                } else {
+                    MoveDTO moveDTO = new MoveDTO();
+                    moveDTO.setAfterId(ids.get(random.nextInt(ids.size())));
+                    if (moveDTO.getAfterId() != id) {
+                        todoService.moveTodo(id, moveDTO);
+                    }
+                }
+                histogram.record((System.nanoTime() - operationStart) / 1000);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            for (long id : ids) {
+                todoService.deleteTodo(id);
+            }
+
+            Result result = new Result(operations / seconds, histogram.percentile(0.5), histogram.percentile(0.99));
+            System.out.printf("%-8s %12.0f %10d %10d%n", store, result.opsPerSecond(), result.p50(), result.p99());
+            return result;
+        }
+    }
+
+    private static TodoDTO todoDTO(String title) {
+        TodoDTO todoDTO = new TodoDTO();
+        todoDTO.setTitle(title);
+        return todoDTO;
+    }
+}
@@ -0,0 +1,290 @@
+package com.project.Todo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives a fixed-rate mix of REST calls against the application on the in-memory store and
+ * compares throughput and latency with a saved baseline. Requests are sent on schedule
+ * whether or not earlier ones finished, and latency is measured from the scheduled send
+ * time, so a stalled server shows up in the percentiles instead of slowing the load down.
+ *
+ * <pre>
+ * ./mvnw -Ploadtest test -Dloadtest.rate=5000 -Dloadtest.duration=PT30S
+ * </pre>
+ *
+ * Runs with {@code -Dloadtest.update-baseline=true} save the baseline; without one to compare
+ * against, the test fails rather than passing unchecked.
+ */
+@Tag("load")
+@ActiveProfiles("memory")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "todo.store.dir=target/loadtest/store-${random.uuid}",
+        "todo.audit.dir=target/loadtest/audit-${random.uuid}",
+        "logging.level.root=WARN"
+})
+public class TodoLoadTest {
+
+    // Creates and deletes balance, so the list stays around its seeded size
+    enum Action {
+        LIST(30), CREATE(15), TOGGLE(20), UPDATE(20), DELETE(15);
+
+        final int weight;
+
+        Action(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    record ActionReport(long requests, long errors, long notFound, long dropped,
+                        long p50Micros, long p90Micros, long p99Micros, long p999Micros, long maxMicros) {
+    }
+
+    record LoadReport(int targetRate, long durationMillis, double throughput, double errorRate,
+                      Map<Action, ActionReport> actions) {
+    }
+
+    private static final class ActionStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder notFound = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+
+    private final int rate = Integer.getInteger("loadtest.rate", 5000);
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private final int seed = Integer.getInteger("loadtest.seed", 1000);
+    private final int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 2000);
+    private final double maxRegression = Double.parseDouble(System.getProperty("loadtest.max-regression", "0.2"));
+    private final double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private final Path baselinePath = Path.of(System.getProperty("loadtest.baseline", "loadtest-baseline.json"));
+    private final Path reportPath = Path.of(System.getProperty("loadtest.report", "target/loadtest/report.json"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final IdPool ids = new IdPool();
+
+    @LocalServerPort
+    int port;
+
+    private ExecutorService executor;
+    private HttpClient client;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void test_workload_mix() throws Exception {
+        for (int i = 0; i < seed; i++) {
+            HttpResponse<String> response = client.send(request(Action.CREATE, new SplittableRandom(i)), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+        run(warmup);
+        Map<Action, ActionStats> stats = run(duration);
+
+        LoadReport report = report(stats);
+        print(report);
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        objectMapper.writeValue(reportPath.toFile(), report);
+
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            objectMapper.writeValue(baselinePath.toFile(), report);
+            System.out.println("Saved baseline to " + baselinePath);
+        } else {
+            assertTrue(Files.exists(baselinePath),
+                    "No baseline at " + baselinePath + ", save one on this machine with -Dloadtest.update-baseline=true");
+            List<String> regressions = regressions(objectMapper.readValue(baselinePath.toFile(), LoadReport.class), report);
+            assertTrue(regressions.isEmpty(), "Regressions against " + baselinePath + ": " + regressions);
+        }
+        assertTrue(report.errorRate() <= maxErrorRate, "Error rate " + report.errorRate() + " above " + maxErrorRate);
+    }
+
+    private Map<Action, ActionStats> run(Duration length) throws InterruptedException {
+        Map<Action, ActionStats> stats = new EnumMap<>(Action.class);
+        for (Action action : Action.values()) {
+            stats.put(action, new ActionStats());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long requests = length.toNanos() / interval;
+        for (long i = 0; i < requests; i++) {
+            long scheduled = start + i * interval;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Action action = pick(random);
+            ActionStats actionStats = stats.get(action);
+            if (!inFlight.tryAcquire()) {
+                actionStats.dropped.increment();
+                continue;
+            }
+            client.sendAsync(request(action, random), HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                inFlight.release();
+                actionStats.latency.record((System.nanoTime() - scheduled) / 1000);
+                if (error != null) {
+                    actionStats.errors.increment();
+                } else if (response.statusCode() == 404 && action != Action.LIST && action != Action.CREATE) {
+                    // Picked a todo another request deleted meanwhile
+                    actionStats.notFound.increment();
+                } else if (response.statusCode() / 100 != 2) {
+                    actionStats.errors.increment();
+                } else if (action == Action.CREATE) {
+                    ids.add(idOf(response.body()));
+                }
+            });
+        }
+        assertTrue(inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS), "Requests still running after 60 seconds");
+        return stats;
+    }
+
+    private Action pick(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        for (Action action : Action.values()) {
+            roll -= action.weight;
+            if (roll < 0) {
+                return ids.isEmpty() && action != Action.LIST ? Action.CREATE : action;
+            }
+        }
+        return Action.LIST;
+    }
+
+    private HttpRequest request(Action action, SplittableRandom random) {
+        String base = "http://localhost:" + port + "/api/todo/";
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30)).header("Content-Type", "application/json");
+        String body = "{\"title\":\"Load test todo " + random.nextInt(1_000_000) + "\",\"tags\":[\"load\"]}";
+        return switch (action) {
+            case LIST -> builder.uri(URI.create(base)).GET().build();
+            case CREATE -> builder.uri(URI.create(base)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+            case TOGGLE -> builder.uri(URI.create(base + "setcomplete/" + ids.random(random)))
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build();
+            case UPDATE -> builder.uri(URI.create(base + ids.random(random))).PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+            case DELETE -> builder.uri(URI.create(base + ids.removeRandom(random))).DELETE().build();
+        };
+    }
+
+    private long idOf(String body) {
+        try {
+            return objectMapper.readTree(body).get("id").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private LoadReport report(Map<Action, ActionStats> stats) {
+        Map<Action, ActionReport> actions = new EnumMap<>(Action.class);
+        long total = 0;
+        long failed = 0;
+        for (Map.Entry<Action, ActionStats> entry : stats.entrySet()) {
+            ActionStats actionStats = entry.getValue();
+            LatencyHistogram latency = actionStats.latency;
+            long requests = latency.count() + actionStats.dropped.sum();
+            long errors = actionStats.errors.sum() + actionStats.dropped.sum();
+            actions.put(entry.getKey(), new ActionReport(requests, actionStats.errors.sum(), actionStats.notFound.sum(),
+                    actionStats.dropped.sum(), latency.percentile(0.5), latency.percentile(0.9), latency.percentile(0.99),
+                    latency.percentile(0.999), latency.max()));
+            total += requests;
+            failed += errors;
+        }
+        double seconds = duration.toMillis() / 1000.0;
+        return new LoadReport(rate, duration.toMillis(), (total - failed) / seconds, total == 0 ? 0 : (double) failed / total, actions);
+    }
+
+    // Latency regressions under a millisecond are noise
+    private List<String> regressions(LoadReport baseline, LoadReport current) {
+        List<String> regressions = new ArrayList<>();
+        if (current.throughput() < baseline.throughput() * (1 - maxRegression)) {
+            regressions.add(String.format("throughput %.0f/s, baseline %.0f/s", current.throughput(), baseline.throughput()));
+        }
+        for (Map.Entry<Action, ActionReport> entry : current.actions().entrySet()) {
+            ActionReport before = baseline.actions().get(entry.getKey());
+            long p99 = entry.getValue().p99Micros();
+            if (before != null && p99 > before.p99Micros() * (1 + maxRegression) && p99 - before.p99Micros() > 1000) {
+                regressions.add(String.format("%s p99 %dus, baseline %dus", entry.getKey(), p99, before.p99Micros()));
+            }
+        }
+        return regressions;
+    }
+
+    private static void print(LoadReport report) {
+        System.out.printf("%n%d requests/s offered for %d ms: %.0f requests/s served, error rate %.4f%n",
+                report.targetRate(), report.durationMillis(), report.throughput(), report.errorRate());
+        System.out.printf("%-8s %9s %7s %9s %8s %9s %9s %9s %9s %9s%n",
+                "action", "requests", "errors", "notFound", "dropped", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+        report.actions().forEach((action, stats) -> System.out.printf("%-8s %9d %7d %9d %8d %9d %9d %9d %9d %9d%n",
+                action, stats.requests(), stats.errors(), stats.notFound(), stats.dropped(),
+                stats.p50Micros(), stats.p90Micros(), stats.p99Micros(), stats.p999Micros(), stats.maxMicros()));
+    }
+
+    // Ids of todos believed to exist; deletes take theirs out when they are sent
+    private static final class IdPool {
+        private long[] ids = new long[1024];
+        private int size;
+
+        synchronized void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+
+        synchronized long random(SplittableRandom random) {
+            return size == 0 ? 0 : ids[random.nextInt(size)];
+        }
+
+        synchronized long removeRandom(SplittableRandom random) {
+            if (size == 0) {
+                return 0;
+            }
+            int index = random.nextInt(size);
+            long id = ids[index];
+            ids[index] = ids[--size];
+            return id;
+        }
+    }
+}
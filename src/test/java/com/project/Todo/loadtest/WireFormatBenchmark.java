@@ -0,0 +1,118 @@
+package com.project.Todo.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.project.Todo.config.JacksonConfig;
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payload size and encode/decode time of JSON and CBOR for a single todo, a todo list and a
+ * create batch, with the mappers configured like the application's.
+ */
+@Tag("load")
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<Todo>> TODO_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<TodoDTO>> TODO_BATCH = new TypeReference<>() {
+    };
+
+    private final int iterations = Integer.getInteger("loadtest.wire-iterations", 2000);
+
+    @Test
+    public void test_json_and_cbor() throws IOException {
+        ObjectMapper json = mapper(Jackson2ObjectMapperBuilder.json());
+        ObjectMapper cbor = mapper(Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()));
+        List<Todo> list = todos(1000);
+        List<TodoDTO> batch = batch(1000);
+
+        System.out.printf("%n%-12s %-6s %10s %12s %12s%n", "payload", "format", "bytes", "encode us", "decode us");
+        long[] jsonSizes = new long[3];
+        long[] cborSizes = new long[3];
+        jsonSizes[0] = measure("todo", "json", json, list.get(0), Todo.class);
+        cborSizes[0] = measure("todo", "cbor", cbor, list.get(0), Todo.class);
+        jsonSizes[1] = measure("list 1000", "json", json, list, TODO_LIST);
+        cborSizes[1] = measure("list 1000", "cbor", cbor, list, TODO_LIST);
+        jsonSizes[2] = measure("batch 1000", "json", json, batch, TODO_BATCH);
+        cborSizes[2] = measure("batch 1000", "cbor", cbor, batch, TODO_BATCH);
+        for (int i = 0; i < jsonSizes.length; i++) {
+            assertTrue(cborSizes[i] < jsonSizes[i]);
+        }
+    }
+
+    private long measure(String payload, String format, ObjectMapper mapper, Object value, Object type) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(value);
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(value);
+            read(mapper, bytes, type);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long encode = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            read(mapper, bytes, type);
+        }
+        long decode = System.nanoTime() - start;
+        System.out.printf("%-12s %-6s %10d %12.1f %12.1f%n", payload, format, bytes.length,
+                encode / 1000.0 / iterations, decode / 1000.0 / iterations);
+        return bytes.length;
+    }
+
+    private static Object read(ObjectMapper mapper, byte[] bytes, Object type) throws IOException {
+        if (type instanceof TypeReference<?> reference) {
+            return mapper.readValue(bytes, reference);
+        }
+        return mapper.readValue(bytes, (Class<?>) type);
+    }
+
+    private static ObjectMapper mapper(Jackson2ObjectMapperBuilder builder) {
+        JacksonConfig config = new JacksonConfig();
+        return builder.modulesToInstall(new BlackbirdModule(), config.todoJsonModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static List<Todo> todos(int count) {
+        List<Todo> todos = new ArrayList<>(count);
+        Instant due = Instant.parse("2030-01-07T09:00:00Z");
+        for (int i = 1; i <= count; i++) {
+            Todo todo = new Todo((long) i, "Benchmark todo " + i, i % 3 == 0, true);
+            todo.setPosition(i * 65536L);
+            todo.setDueAt(due.plusSeconds(i * 3600L));
+            todo.setTags(new LinkedHashSet<>(List.of("work", "bench")));
+            todo.setVersion((long) i % 7);
+            todos.add(todo);
+        }
+        return todos;
+    }
+
+    private static List<TodoDTO> batch(int count) {
+        List<TodoDTO> batch = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            TodoDTO todoDTO = new TodoDTO();
+            todoDTO.setTitle("Benchmark todo " + i);
+            todoDTO.setTags(Set.of("bench"));
+            batch.add(todoDTO);
+        }
+        return batch;
+    }
+}
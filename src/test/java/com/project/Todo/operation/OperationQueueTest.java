@@ -0,0 +1,140 @@
+package com.project.Todo.operation;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.exception.InvalidTodoRequestException;
+import com.project.Todo.exception.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OperationQueueTest {
+
+    private OperationQueue queue;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        queue.stop();
+    }
+
+    // Mutations of one todo apply in submission order, each operation reports its own outcome
+    @Test
+    public void test_mutations_apply_in_order_per_todo() throws InterruptedException {
+        queue = open(4, 1024);
+        List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+        List<Operation> submitted = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int sequence = i;
+            submitted.add(queue.submit(7L, () -> {
+                applied.add(sequence);
+                return new Todo(7L, "Todo " + sequence, false, true);
+            }).orElseThrow());
+        }
+        Operation missing = queue.submit(8L, () -> {
+            throw NotFoundException.NOT_FOUND;
+        }).orElseThrow();
+
+        Operation last = await(submitted.get(199).id());
+        assertEquals(OperationState.SUCCEEDED, last.state());
+        assertEquals("Todo 199", last.todo().getTitle());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, applied.get(i));
+        }
+        assertEquals(404, await(missing.id()).status());
+        assertEquals(OperationState.FAILED, await(missing.id()).state());
+    }
+
+    // Only rejected requests are a 400, other failures stay internal errors without their message
+    @Test
+    public void test_failures_map_to_status() throws InterruptedException {
+        queue = open(1, 16);
+        Operation rejected = queue.submit(1L, () -> {
+            throw new InvalidTodoRequestException("A todo cannot be moved under its own subtask");
+        }).orElseThrow();
+        Operation broken = queue.submit(2L, () -> {
+            throw new IllegalArgumentException("Parameter value [7] did not match expected type");
+        }).orElseThrow();
+
+        assertEquals(400, await(rejected.id()).status());
+        assertEquals("A todo cannot be moved under its own subtask", await(rejected.id()).error());
+        assertEquals(500, await(broken.id()).status());
+        assertEquals("Internal error", await(broken.id()).error());
+    }
+
+    // A full partition refuses new work instead of blocking the request thread
+    @Test
+    public void test_full_partition_rejects() throws InterruptedException {
+        queue = open(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Operation blocking = queue.submit(1L, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Todo(1L, "Blocking", false, true);
+        }).orElseThrow();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(queue.submit(2L, () -> new Todo(2L, "Queued", false, true)).isPresent());
+        assertTrue(queue.submit(3L, () -> new Todo(3L, "Rejected", false, true)).isEmpty());
+        assertEquals(OperationState.PENDING, queue.find(blocking.id()).orElseThrow().state());
+
+        release.countDown();
+        assertEquals(OperationState.SUCCEEDED, await(blocking.id()).state());
+        assertEquals(1L, queue.metrics().get("rejected"));
+    }
+
+    // Past the bound the oldest outcomes are dropped before their retention ends
+    @Test
+    public void test_retained_outcomes_are_bounded() throws InterruptedException {
+        queue = open(1, 64, 10);
+        List<Operation> submitted = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            long todoId = id;
+            submitted.add(queue.submit(todoId, () -> new Todo(todoId, "Todo " + todoId, false, true)).orElseThrow());
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) queue.metrics().get("succeeded") < 30 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(10, queue.metrics().get("retained"));
+        assertEquals(10, queue.metrics().get("maxRetained"));
+        assertEquals(20L, queue.metrics().get("evicted"));
+        assertTrue(queue.find(submitted.get(0).id()).isEmpty());
+        assertEquals("Todo 30", queue.find(submitted.get(29).id()).orElseThrow().todo().getTitle());
+    }
+
+    private OperationQueue open(int partitions, int capacity) {
+        return open(partitions, capacity, 1000);
+    }
+
+    private OperationQueue open(int partitions, int capacity, int maxRetained) {
+        OperationQueue operationQueue = new OperationQueue(new StaticListableBeanFactory().getBeanProvider(TransactionOperations.class),
+                partitions, capacity, 16, Duration.ofMinutes(1), maxRetained);
+        operationQueue.start();
+        return operationQueue;
+    }
+
+    private Operation await(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        Operation operation = queue.find(id).orElseThrow();
+        while (operation.state() == OperationState.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            operation = queue.find(id).orElseThrow();
+        }
+        return operation;
+    }
+}
@@ -0,0 +1,50 @@
+package com.project.Todo.reminder;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.repository.TodoStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ReminderSchedulerTest {
+
+    private ReminderScheduler scheduler;
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    // A reminder that came due while the application was down fires after startup
+    @Test
+    public void test_missed_reminder_fires_after_start() throws InterruptedException {
+        Todo missed = new Todo(7L, "Call back", false, true);
+        missed.setRemindAt(Instant.now().minus(Duration.ofMinutes(10)));
+        TodoStore todoStore = mock(TodoStore.class);
+        when(todoStore.findByStatusTrueAndCompletedFalseAndRemindAtGreaterThanEqualAndRemindAtLessThan(any(), any()))
+                .thenAnswer(invocation -> {
+                    Instant from = invocation.getArgument(0);
+                    Instant to = invocation.getArgument(1);
+                    Instant at = missed.getRemindAt();
+                    return !at.isBefore(from) && at.isBefore(to) ? List.of(missed) : List.of();
+                });
+        LinkedBlockingQueue<Reminder> delivered = new LinkedBlockingQueue<>();
+        scheduler = new ReminderScheduler(todoStore, delivered::add, Duration.ofMillis(10), Duration.ofMinutes(1),
+                Duration.ofHours(1));
+
+        scheduler.start();
+
+        Reminder reminder = delivered.poll(5, TimeUnit.SECONDS);
+        assertNotNull(reminder);
+        assertEquals(7L, reminder.todoId());
+    }
+}
@@ -0,0 +1,59 @@
+package com.project.Todo.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    // Items fire once their tick is reached, never earlier
+    @Test
+    public void test_items_fire_at_their_deadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 3, 0);
+        wheel.schedule(35, "a");
+        wheel.schedule(15, "b");
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(29, fired::add);
+        assertEquals(List.of("b"), fired);
+
+        wheel.advance(30, fired::add);
+        assertEquals(List.of("b", "a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    // Deadlines on higher levels cascade down and fire on time
+    @Test
+    public void test_items_on_higher_levels_cascade() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 4, 3, 0);
+        for (long deadline = 1; deadline < 64; deadline += 3) {
+            assertTrue(wheel.schedule(deadline, deadline));
+        }
+        List<Long> fired = new ArrayList<>();
+
+        for (long now = 1; now < 64; now++) {
+            int before = fired.size();
+            wheel.advance(now, fired::add);
+            for (int i = before; i < fired.size(); i++) {
+                assertEquals(now, fired.get(i));
+            }
+        }
+        assertEquals(21, fired.size());
+    }
+
+    // Deadlines beyond the span are rejected, past deadlines fire on the next advance
+    @Test
+    public void test_out_of_span_and_overdue_items() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 4, 2, 100);
+        List<String> fired = new ArrayList<>();
+
+        assertFalse(wheel.schedule(100 + wheel.spanMillis() + 1, "late"));
+        assertTrue(wheel.schedule(50, "overdue"));
+
+        wheel.advance(101, fired::add);
+        assertEquals(List.of("overdue"), fired);
+    }
+}
@@ -0,0 +1,313 @@
+package com.project.Todo.service;
+
+import com.project.Todo.dto.MoveDTO;
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.exception.ConflictException;
+import com.project.Todo.exception.NotFoundException;
+import com.project.Todo.store.InMemoryTodoStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The scenarios of {@link TodoServiceTest} against a real {@link InMemoryTodoStore} instead of a
+ * mocked repository. Failures and concurrent writers are injected with a spy on the store.
+ */
+public class InMemoryTodoServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryTodoStore store;
+    private TodoService todoService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        store = new InMemoryTodoStore(directory, false, DataSize.ofMegabytes(64));
+        store.recover();
+        todoService = new TodoService();
+        todoService.todoRepository = store;
+        todoService.maxRetries = 3;
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    //----------Get----------
+    // Returns the todos with status=true only
+    @Test
+    public void test_get_all_active_todos() {
+        Todo first = todoService.createTodo(todoDTO("Task 1"));
+        Todo second = todoService.createTodo(todoDTO("Task 2"));
+        todoService.deleteTodo(todoService.createTodo(todoDTO("Task 3")).getId());
+
+        assertEquals(List.of(first.getId(), second.getId()), todoService.getAll().stream().map(Todo::getId).toList());
+    }
+
+    // An empty store returns an empty list
+    @Test
+    public void test_get_all_when_store_is_empty() {
+        assertEquals(List.of(), todoService.getAll());
+    }
+
+    @Test
+    public void test_get_all_store_failure() {
+        InMemoryTodoStore failing = spy(store);
+        todoService.todoRepository = failing;
+        doThrow(new RuntimeException("Store failed")).when(failing).findByStatusTrue();
+
+        assertThrows(RuntimeException.class, () -> todoService.getAll());
+    }
+
+    @Test
+    public void test_get_all_with_large_number_of_todos() {
+        for (int i = 0; i < 10000; i++) {
+            Todo todo = new Todo(null, "Task " + i, i % 2 == 0, true);
+            todo.setPosition(i);
+            store.save(todo);
+        }
+
+        List<Todo> todos = todoService.getAll();
+
+        assertEquals(10000, todos.size());
+        assertEquals("Task 0", todos.get(0).getTitle());
+        assertEquals("Task 9999", todos.get(9999).getTitle());
+    }
+
+    //----------Create----------
+    // The todo is stored active and not completed, with a generated id
+    @Test
+    public void test_create_todo_with_valid_title() {
+        Todo result = todoService.createTodo(todoDTO("Test Todo"));
+
+        assertNotNull(result.getId());
+        assertEquals("Test Todo", result.getTitle());
+        assertFalse(result.isCompleted());
+        assertTrue(result.isStatus());
+        assertEquals("Test Todo", store.findTodoById(result.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    public void test_create_todo_with_null_title() {
+        Todo result = todoService.createTodo(todoDTO(null));
+
+        assertNull(result.getTitle());
+        assertTrue(result.isStatus());
+    }
+
+    @Test
+    public void test_create_todo_save_failure() {
+        InMemoryTodoStore failing = spy(store);
+        todoService.todoRepository = failing;
+        doThrow(new RuntimeException("Save failed")).when(failing).save(any(Todo.class));
+
+        Exception exception = assertThrows(RuntimeException.class, () -> todoService.createTodo(todoDTO("Test Todo")));
+
+        assertEquals("Save failed", exception.getMessage());
+        assertEquals(List.of(), store.findByStatusTrue());
+    }
+
+    // Ids are generated by the store and never reused
+    @Test
+    public void test_todo_id_generated_automatically() {
+        Todo first = todoService.createTodo(todoDTO("Sample Todo"));
+        Todo second = todoService.createTodo(todoDTO("Sample Todo"));
+
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+    }
+
+    //----------Delete----------
+    // Soft delete: status becomes false and the todo leaves the active list
+    @Test
+    public void test_delete_todo_sets_status_false() {
+        Todo todo = todoService.createTodo(todoDTO("Task"));
+
+        Todo result = todoService.deleteTodo(todo.getId());
+
+        assertFalse(result.isStatus());
+        assertFalse(store.findTodoById(todo.getId()).orElseThrow().isStatus());
+        assertEquals(List.of(), todoService.getAll());
+    }
+
+    @Test
+    public void test_delete_todo_throws_not_found() {
+        assertThrows(NotFoundException.class, () -> todoService.deleteTodo(1L));
+    }
+
+    //----------Update----------
+    // Only the title changes
+    @Test
+    public void test_update_todo_title_only() {
+        Todo todo = todoService.createTodo(todoDTO("Old Title"));
+
+        Todo updated = todoService.updateTodoById(todo.getId(), todoDTO("New Title"));
+
+        assertEquals("New Title", updated.getTitle());
+        assertFalse(updated.isCompleted());
+        assertTrue(updated.isStatus());
+        assertEquals("New Title", store.findTodoById(todo.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    public void test_update_todo_not_found() {
+        assertThrows(NotFoundException.class, () -> todoService.updateTodoById(1L, todoDTO("New Title")));
+    }
+
+    //----------Update Complete----------
+    @Test
+    public void test_toggle_completed_status_both_ways() {
+        Todo todo = todoService.createTodo(todoDTO("Task"));
+
+        assertTrue(todoService.updateTodoComplete(todo.getId()).isCompleted());
+        assertTrue(store.findTodoById(todo.getId()).orElseThrow().isCompleted());
+        assertFalse(todoService.updateTodoComplete(todo.getId()).isCompleted());
+    }
+
+    @Test
+    public void test_throw_not_found_exception_for_invalid_id() {
+        assertThrows(NotFoundException.class, () -> todoService.updateTodoComplete(999L));
+    }
+
+    @Test
+    public void test_update_todo_complete_save_failure() {
+        Todo todo = todoService.createTodo(todoDTO("Task"));
+        InMemoryTodoStore failing = spy(store);
+        todoService.todoRepository = failing;
+        doThrow(new RuntimeException("Save operation failed")).when(failing).save(any(Todo.class));
+
+        assertThrows(RuntimeException.class, () -> todoService.updateTodoComplete(todo.getId()));
+        assertFalse(store.findTodoById(todo.getId()).orElseThrow().isCompleted());
+    }
+
+    @Test
+    public void test_update_todo_complete_with_null_id() {
+        assertThrows(IllegalArgumentException.class, () -> todoService.updateTodoComplete(null));
+    }
+
+    //----------Move----------
+    // The moved todo gets a position between its new neighbours
+    @Test
+    public void test_move_todo_between_neighbours() {
+        Todo previous = store.save(todo("Task 1", 100));
+        store.save(todo("Task 2", 200));
+        Todo moved = store.save(todo("Task 3", 300));
+
+        Todo result = todoService.moveTodo(moved.getId(), moveAfter(previous.getId()));
+
+        assertEquals(150, result.getPosition());
+        assertEquals(List.of("Task 1", "Task 3", "Task 2"), titles());
+    }
+
+    @Test
+    public void test_move_todo_to_top() {
+        store.save(todo("Task 1", 100));
+        Todo moved = store.save(todo("Task 3", 300));
+
+        Todo result = todoService.moveTodo(moved.getId(), new MoveDTO());
+
+        assertEquals(100 - TodoService.POSITION_GAP, result.getPosition());
+        assertEquals(List.of("Task 3", "Task 1"), titles());
+    }
+
+    // Adjacent neighbours are respaced first, the move then lands between them
+    @Test
+    public void test_move_todo_rebalances_when_gap_exhausted() {
+        Todo previous = store.save(todo("Task 1", 100));
+        store.save(todo("Task 2", 101));
+        Todo moved = store.save(todo("Task 3", 102));
+
+        Todo result = todoService.moveTodo(moved.getId(), moveAfter(previous.getId()));
+
+        assertEquals(TodoService.POSITION_GAP + TodoService.POSITION_GAP / 2, result.getPosition());
+        assertEquals(List.of("Task 1", "Task 3", "Task 2"), titles());
+    }
+
+    //----------Optimistic locking----------
+    @Test
+    public void test_update_with_stale_version_conflicts() {
+        Todo todo = todoService.createTodo(todoDTO("Task 1"));
+        todoService.updateTodoComplete(todo.getId());
+
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> todoService.updateTodoById(todo.getId(), todoDTO("New Title"), 0L));
+
+        assertEquals(1L, exception.getCurrent().getVersion());
+        assertEquals("Task 1", store.findTodoById(todo.getId()).orElseThrow().getTitle());
+    }
+
+    // The store rejects the save of a todo changed meanwhile; the toggle re-runs on fresh state
+    @Test
+    public void test_toggle_retries_after_concurrent_update() {
+        Todo todo = todoService.createTodo(todoDTO("Task 1"));
+        concurrentlyRetitle(todo.getId(), "Other Title");
+
+        Todo result = todoService.updateTodoComplete(todo.getId());
+
+        assertTrue(result.isCompleted());
+        assertEquals("Other Title", result.getTitle());
+        assertEquals(2L, result.getVersion());
+    }
+
+    // Full updates are not retried, the caller gets the current state
+    @Test
+    public void test_update_is_not_retried_after_concurrent_update() {
+        Todo todo = todoService.createTodo(todoDTO("Task 1"));
+        concurrentlyRetitle(todo.getId(), "Other Title");
+
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> todoService.updateTodoById(todo.getId(), todoDTO("New Title")));
+
+        assertEquals("Other Title", exception.getCurrent().getTitle());
+        assertEquals("Other Title", store.findTodoById(todo.getId()).orElseThrow().getTitle());
+    }
+
+    // The first read of the todo is followed by another writer's save, so the service holds a stale copy
+    private void concurrentlyRetitle(long id, String title) {
+        InMemoryTodoStore racing = spy(store);
+        todoService.todoRepository = racing;
+        doAnswer(invocation -> {
+            Object read = invocation.callRealMethod();
+            Todo other = store.findTodoById(id).orElseThrow();
+            other.setTitle(title);
+            store.save(other);
+            doCallRealMethod().when(racing).findTodoById(id);
+            return read;
+        }).when(racing).findTodoById(id);
+    }
+
+    private List<String> titles() {
+        return todoService.getAll().stream().map(Todo::getTitle).toList();
+    }
+
+    private static TodoDTO todoDTO(String title) {
+        TodoDTO todoDTO = new TodoDTO();
+        todoDTO.setTitle(title);
+        return todoDTO;
+    }
+
+    private static Todo todo(String title, long position) {
+        Todo todo = new Todo(null, title, false, true);
+        todo.setPosition(position);
+        return todo;
+    }
+
+    private static MoveDTO moveAfter(long id) {
+        MoveDTO moveDTO = new MoveDTO();
+        moveDTO.setAfterId(id);
+        return moveDTO;
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.Todo.service;
+
+import com.project.Todo.dto.MoveDTO;
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Moves against the configured store, MySQL by default. Unlike TodoServiceTest nothing is
+ * mocked, so the respacing UPDATE and the reads after it run as they do in production.
+ * With a database the transaction is rolled back; the in-memory store has no transactions,
+ * so it writes to a directory of its own under target.
+ */
+@SpringBootTest(properties = "todo.store.dir=target/test-store/ordering-${random.uuid}")
+public class TodoOrderingTest {
+
+    @Autowired
+    private TodoService todoService;
+
+    // Absent with in-memory storage
+    @Autowired
+    private ObjectProvider<TransactionOperations> transactions;
+
+    // Moves into one gap until it is used up: the list is respaced and the move retried in the same transaction
+    @Test
+    public void test_move_into_used_up_gap_rebalances() {
+        TransactionOperations operations = transactions.getIfAvailable(TransactionOperations::withoutTransaction);
+        operations.executeWithoutResult(status -> {
+            Todo first = create("First");
+            Todo last = create("Last");
+            List<Long> expected = new ArrayList<>(List.of(first.getId(), last.getId()));
+            // Every move halves the gap after first, 16 halvings use up POSITION_GAP
+            for (int i = 0; i < 20; i++) {
+                Todo moved = create("Moved " + i);
+                MoveDTO moveDTO = new MoveDTO();
+                moveDTO.setAfterId(first.getId());
+                todoService.moveTodo(moved.getId(), moveDTO);
+                expected.add(1, moved.getId());
+            }
+
+            List<Long> order = todoService.getAll().stream().map(Todo::getId).filter(expected::contains).toList();
+            assertEquals(expected, order);
+            status.setRollbackOnly();
+        });
+    }
+
+    private Todo create(String title) {
+        TodoDTO todoDTO = new TodoDTO();
+        todoDTO.setTitle(title);
+        return todoService.createTodo(todoDTO);
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.Todo.service;
+
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.exception.NotFoundException;
+import com.project.Todo.recurrence.RecurrenceExpander;
+import com.project.Todo.store.InMemoryTodoStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TodoRecurrenceTest {
+
+    private static final Instant MONDAY = Instant.parse("2030-01-07T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private InMemoryTodoStore store;
+    private TodoService todoService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        store = new InMemoryTodoStore(directory, false, DataSize.ofMegabytes(64));
+        store.recover();
+        todoService = new TodoService();
+        todoService.todoRepository = store;
+        todoService.recurrenceExpander = new RecurrenceExpander(Duration.ofDays(7), ZoneOffset.UTC, 64);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    // Occurrences are expanded per query and merged with regular todos by due time, none are stored
+    @Test
+    public void test_agenda_expands_occurrences() {
+        Todo standup = create("Standup", "0 0 9 * * MON-FRI", MONDAY);
+        create("Dentist", null, MONDAY.plus(Duration.ofHours(33)));
+
+        List<Todo> agenda = todoService.getAgenda(MONDAY, MONDAY.plus(Duration.ofDays(14)), 1000);
+
+        assertEquals(11, agenda.size());
+        assertEquals(MONDAY.plus(Duration.ofHours(9)), agenda.get(0).getDueAt());
+        assertEquals(standup.getId(), agenda.get(0).getTemplateId());
+        assertNull(agenda.get(0).getId());
+        assertEquals("Dentist", agenda.get(1).getTitle());
+        assertEquals(2, store.findByStatusTrue().size());
+        assertEquals(3, todoService.getAgenda(MONDAY, MONDAY.plus(Duration.ofDays(14)), 3).size());
+    }
+
+    // Completing an occurrence stores it once and it replaces its expansion
+    @Test
+    public void test_complete_occurrence_materializes_it() {
+        Todo standup = create("Standup", "@daily", MONDAY);
+        Instant tuesday = MONDAY.plus(Duration.ofDays(1));
+
+        Todo done = todoService.updateOccurrenceComplete(standup.getId(), tuesday);
+        Todo again = todoService.materializeOccurrence(standup.getId(), tuesday);
+
+        assertTrue(done.isCompleted());
+        assertEquals(done.getId(), again.getId());
+        List<Todo> agenda = todoService.getAgenda(MONDAY, MONDAY.plus(Duration.ofDays(3)), 1000);
+        assertEquals(3, agenda.size());
+        assertEquals(done.getId(), agenda.get(1).getId());
+        assertTrue(agenda.get(1).isCompleted());
+        assertThrows(NotFoundException.class,
+                () -> todoService.materializeOccurrence(standup.getId(), tuesday.plus(Duration.ofHours(1))));
+    }
+
+    @Test
+    public void test_invalid_recurrence_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> create("Broken", "every day", MONDAY));
+        assertThrows(IllegalArgumentException.class, () -> create("Too often", "0 * * * * *", MONDAY));
+    }
+
+    private Todo create(String title, String recurrence, Instant dueAt) {
+        TodoDTO todoDTO = new TodoDTO();
+        todoDTO.setTitle(title);
+        todoDTO.setRecurrence(recurrence);
+        todoDTO.setDueAt(dueAt);
+        return todoService.createTodo(todoDTO);
+    }
+}
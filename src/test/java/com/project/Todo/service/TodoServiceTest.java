@@ -1,7 +1,9 @@
 package com.project.Todo.service;
 
+import com.project.Todo.dto.MoveDTO;
 import com.project.Todo.dto.TodoDTO;
 import com.project.Todo.entity.Todo;
+import com.project.Todo.exception.ConflictException;
 import com.project.Todo.exception.NotFoundException;
 import com.project.Todo.repository.TodoRepository;
 import jakarta.validation.ConstraintViolation;
@@ -15,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -404,6 +407,137 @@ public class TodoServiceTest {
         });
     }
 
+    //----------Move----3 testcases------
+    //1 - HappyCase - Moved todo gets a position between its new neighbours
+    @Test
+    public void test_move_todo_between_neighbours() {
+        Todo todo = new Todo(3L, "Task 3", false, true);
+        todo.setPosition(300);
+        Todo previous = new Todo(1L, "Task 1", false, true);
+        previous.setPosition(100);
+        Todo next = new Todo(2L, "Task 2", false, true);
+        next.setPosition(200);
+        MoveDTO moveDTO = new MoveDTO();
+        moveDTO.setAfterId(1L);
+
+        when(todoRepository.findTodoById(3L)).thenReturn(Optional.of(todo));
+        when(todoRepository.findTodoById(1L)).thenReturn(Optional.of(previous));
+        when(todoRepository.findFirstByStatusTrueAndPositionGreaterThanOrderByPositionAscIdAsc(100L)).thenReturn(Optional.of(next));
+        when(todoRepository.save(todo)).thenReturn(todo);
+
+        Todo result = todoService.moveTodo(3L, moveDTO);
+
+        assertEquals(150, result.getPosition());
+        verify(todoRepository).save(todo);
+        verify(todoRepository, never()).rebalancePositions(anyLong());
+    }
+
+    //2 - Moving to the top places the todo before the current first one
+    @Test
+    public void test_move_todo_to_top() {
+        Todo todo = new Todo(3L, "Task 3", false, true);
+        todo.setPosition(300);
+        Todo first = new Todo(1L, "Task 1", false, true);
+        first.setPosition(100);
+
+        when(todoRepository.findTodoById(3L)).thenReturn(Optional.of(todo));
+        when(todoRepository.findFirstByStatusTrueOrderByPositionAscIdAsc()).thenReturn(Optional.of(first));
+        when(todoRepository.save(todo)).thenReturn(todo);
+
+        Todo result = todoService.moveTodo(3L, new MoveDTO());
+
+        assertEquals(100 - TodoService.POSITION_GAP, result.getPosition());
+        verify(todoRepository).save(todo);
+    }
+
+    //3 - Adjacent neighbours trigger a rebalance before the move
+    @Test
+    public void test_move_todo_rebalances_when_gap_exhausted() {
+        Todo todo = new Todo(3L, "Task 3", false, true);
+        Todo previous = new Todo(1L, "Task 1", false, true);
+        previous.setPosition(100);
+        Todo next = new Todo(2L, "Task 2", false, true);
+        next.setPosition(101);
+        Todo previousRebalanced = new Todo(1L, "Task 1", false, true);
+        previousRebalanced.setPosition(TodoService.POSITION_GAP);
+        Todo nextRebalanced = new Todo(2L, "Task 2", false, true);
+        nextRebalanced.setPosition(2 * TodoService.POSITION_GAP);
+        MoveDTO moveDTO = new MoveDTO();
+        moveDTO.setAfterId(1L);
+
+        when(todoRepository.findTodoById(3L)).thenReturn(Optional.of(todo));
+        when(todoRepository.findTodoById(1L)).thenReturn(Optional.of(previous), Optional.of(previousRebalanced));
+        when(todoRepository.findFirstByStatusTrueAndPositionGreaterThanOrderByPositionAscIdAsc(100L)).thenReturn(Optional.of(next));
+        when(todoRepository.findFirstByStatusTrueAndPositionGreaterThanOrderByPositionAscIdAsc(TodoService.POSITION_GAP)).thenReturn(Optional.of(nextRebalanced));
+        when(todoRepository.save(todo)).thenReturn(todo);
+
+        Todo result = todoService.moveTodo(3L, moveDTO);
+
+        assertEquals(TodoService.POSITION_GAP + TodoService.POSITION_GAP / 2, result.getPosition());
+        verify(todoRepository).rebalancePositions(TodoService.POSITION_GAP);
+        verify(todoRepository).save(todo);
+    }
+
+    //----------Optimistic locking----3 testcases------
+    //1 - Stale expected version returns a conflict with the current todo and does not save
+    @Test
+    public void test_update_with_stale_version_conflicts() {
+        Todo todo = new Todo(1L, "Task 1", false, true);
+        todo.setVersion(5L);
+        TodoDTO todoDTO = new TodoDTO();
+        todoDTO.setTitle("New Title");
+
+        when(todoRepository.findTodoById(1L)).thenReturn(Optional.of(todo));
+
+        ConflictException exception = assertThrows(ConflictException.class, () -> {
+            todoService.updateTodoById(1L, todoDTO, 4L);
+        });
+
+        assertEquals(5L, exception.getCurrent().getVersion());
+        verify(todoRepository, never()).save(any(Todo.class));
+    }
+
+    //2 - Toggle is re-run on fresh state after a concurrent update
+    @Test
+    public void test_toggle_retries_after_concurrent_update() {
+        todoService.maxRetries = 3;
+        Todo stale = new Todo(1L, "Task 1", false, true);
+        stale.setVersion(1L);
+        Todo fresh = new Todo(1L, "Task 1", false, true);
+        fresh.setVersion(2L);
+
+        when(todoRepository.findTodoById(1L)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(todoRepository.save(stale)).thenThrow(new ObjectOptimisticLockingFailureException(Todo.class, 1L));
+        when(todoRepository.save(fresh)).thenReturn(fresh);
+
+        Todo result = todoService.updateTodoComplete(1L);
+
+        assertTrue(result.isCompleted());
+        verify(todoRepository).save(fresh);
+    }
+
+    //3 - Full updates are not retried, the caller gets the current state
+    @Test
+    public void test_update_is_not_retried_after_concurrent_update() {
+        todoService.maxRetries = 3;
+        Todo stale = new Todo(1L, "Task 1", false, true);
+        stale.setVersion(1L);
+        Todo current = new Todo(1L, "Other Title", false, true);
+        current.setVersion(2L);
+        TodoDTO todoDTO = new TodoDTO();
+        todoDTO.setTitle("New Title");
+
+        when(todoRepository.findTodoById(1L)).thenReturn(Optional.of(stale), Optional.of(current));
+        when(todoRepository.save(stale)).thenThrow(new ObjectOptimisticLockingFailureException(Todo.class, 1L));
+
+        ConflictException exception = assertThrows(ConflictException.class, () -> {
+            todoService.updateTodoById(1L, todoDTO);
+        });
+
+        assertEquals("Other Title", exception.getCurrent().getTitle());
+        verify(todoRepository, times(1)).save(any(Todo.class));
+    }
+
 //    //Handle TodoDTO with title longer than 50 characters
 //    @Test
 //    public void test_create_todo_with_title_exceeding_50_characters() {
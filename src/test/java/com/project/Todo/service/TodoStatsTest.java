@@ -0,0 +1,57 @@
+package com.project.Todo.service;
+
+import com.project.Todo.dto.TodoStatsDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.repository.TodoRepository;
+import com.project.Todo.tag.TagIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TodoStatsTest {
+
+    // Counters start from the database and follow create, toggle and delete
+    @Test
+    public void test_stats_follow_changes() {
+        TodoRepository todoRepository = mock(TodoRepository.class);
+        TagIndex tagIndex = mock(TagIndex.class);
+        when(todoRepository.countByStatusTrueAndCompletedFalse()).thenReturn(3L);
+        when(todoRepository.countByStatusTrueAndCompletedTrue()).thenReturn(2L);
+        when(todoRepository.countByStatusFalse()).thenReturn(1L);
+        when(tagIndex.tagCounts()).thenReturn(Map.of("work", 2));
+        TodoStats todoStats = new TodoStats(todoRepository, tagIndex);
+        todoStats.reconcile();
+
+        Todo created = new Todo(7L, "Task 7", false, true);
+        todoStats.onTodoChanged(new TodoChangedEvent(null, created));
+        Todo toggled = new Todo(7L, "Task 7", true, true);
+        todoStats.onTodoChanged(new TodoChangedEvent(created, toggled));
+        Todo deleted = new Todo(8L, "Task 8", false, false);
+        todoStats.onTodoChanged(new TodoChangedEvent(new Todo(8L, "Task 8", false, true), deleted));
+
+        TodoStatsDTO stats = todoStats.getStats();
+        assertEquals(7, stats.getTotal());
+        assertEquals(2, stats.getActive());
+        assertEquals(3, stats.getCompleted());
+        assertEquals(2, stats.getDeleted());
+        assertEquals(Map.of("work", 2), stats.getTags());
+    }
+
+    // Reconciling replaces drifted counters with database counts
+    @Test
+    public void test_reconcile_repairs_drift() {
+        TodoRepository todoRepository = mock(TodoRepository.class);
+        TodoStats todoStats = new TodoStats(todoRepository, mock(TagIndex.class));
+        todoStats.onTodoChanged(new TodoChangedEvent(null, new Todo(1L, "Task 1", false, true)));
+        when(todoRepository.countByStatusTrueAndCompletedFalse()).thenReturn(5L);
+
+        todoStats.reconcile();
+
+        assertEquals(5, todoStats.getStats().getActive());
+        assertEquals(5, todoStats.getStats().getTotal());
+    }
+}
@@ -0,0 +1,138 @@
+package com.project.Todo.service;
+
+import com.project.Todo.cache.TodoCache;
+import com.project.Todo.dto.ParentDTO;
+import com.project.Todo.dto.TodoDTO;
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.event.TodosRewrittenEvent;
+import com.project.Todo.store.InMemoryTodoStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TodoSubtaskTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryTodoStore store;
+    private TodoService todoService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        store = new InMemoryTodoStore(directory, false, DataSize.ofMegabytes(64));
+        store.recover();
+        todoService = new TodoService();
+        todoService.todoRepository = store;
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    // Counters of all ancestors follow creates and completions, the subtree is fetched parents first
+    @Test
+    public void test_subtree_and_progress_rollup() {
+        Todo project = create("Project", null);
+        Todo design = create("Design", project.getId());
+        Todo sketch = create("Sketch", design.getId());
+        create("Build", project.getId());
+
+        todoService.updateTodoComplete(sketch.getId());
+
+        Todo root = find(project.getId());
+        assertEquals(3, root.getSubtasks());
+        assertEquals(1, root.getCompletedSubtasks());
+        assertEquals(33, root.getProgress());
+        assertEquals(100, find(design.getId()).getProgress());
+        assertNull(find(sketch.getId()).getProgress());
+        assertEquals("/" + project.getId() + "/" + design.getId() + "/", find(sketch.getId()).getPath());
+        assertEquals(List.of("Project", "Design", "Build", "Sketch"),
+                todoService.getSubtree(project.getId()).stream().map(Todo::getTitle).toList());
+    }
+
+    // Moving a subtree rewrites the paths below it and moves its counts between the ancestors
+    @Test
+    public void test_move_subtree() {
+        Todo home = create("Home", null);
+        Todo work = create("Work", null);
+        Todo report = create("Report", work.getId());
+        Todo draft = create("Draft", report.getId());
+        todoService.updateTodoComplete(draft.getId());
+
+        todoService.moveSubtree(report.getId(), parent(home.getId()));
+
+        assertEquals(0, find(work.getId()).getSubtasks());
+        assertEquals(2, find(home.getId()).getSubtasks());
+        assertEquals(1, find(home.getId()).getCompletedSubtasks());
+        assertEquals(home.getId(), find(report.getId()).getParentId());
+        assertEquals("/" + home.getId() + "/" + report.getId() + "/", find(draft.getId()).getPath());
+        assertThrows(IllegalArgumentException.class, () -> todoService.moveSubtree(home.getId(), parent(draft.getId())));
+    }
+
+    // Deleting a todo deletes its subtasks and takes them out of the ancestors' counters
+    @Test
+    public void test_delete_subtree() {
+        Todo project = create("Project", null);
+        Todo design = create("Design", project.getId());
+        Todo sketch = create("Sketch", design.getId());
+        create("Build", project.getId());
+
+        todoService.deleteTodo(design.getId());
+
+        assertFalse(find(sketch.getId()).isStatus());
+        assertEquals(1, find(project.getId()).getSubtasks());
+        assertEquals(List.of("Project", "Build"),
+                todoService.getSubtree(project.getId()).stream().map(Todo::getTitle).toList());
+    }
+
+    // Counters change without a new version, the cached parent is dropped rather than served stale
+    @Test
+    public void test_cached_parent_follows_subtask_completion() {
+        TodoCache cache = new TodoCache(100, Duration.ofMinutes(5));
+        todoService.todoCache = cache;
+        todoService.eventPublisher = event -> {
+            if (event instanceof TodoChangedEvent changed) {
+                cache.onTodoChanged(changed);
+            } else if (event instanceof TodosRewrittenEvent rewritten) {
+                cache.onTodosRewritten(rewritten);
+            }
+        };
+        Todo project = create("Project", null);
+        Todo design = create("Design", project.getId());
+        assertEquals(0, todoService.getTodo(project.getId()).getCompletedSubtasks());
+
+        todoService.updateTodoComplete(design.getId());
+
+        assertEquals(1, todoService.getTodo(project.getId()).getCompletedSubtasks());
+        assertEquals(100, todoService.getTodo(project.getId()).getProgress());
+    }
+
+    private Todo create(String title, Long parentId) {
+        TodoDTO todoDTO = new TodoDTO();
+        todoDTO.setTitle(title);
+        todoDTO.setParentId(parentId);
+        return todoService.createTodo(todoDTO);
+    }
+
+    private Todo find(long id) {
+        return store.findTodoById(id).orElseThrow();
+    }
+
+    private static ParentDTO parent(Long parentId) {
+        ParentDTO parentDTO = new ParentDTO();
+        parentDTO.setParentId(parentId);
+        return parentDTO;
+    }
+}
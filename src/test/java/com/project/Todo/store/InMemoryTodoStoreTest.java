@@ -0,0 +1,154 @@
+package com.project.Todo.store;
+
+import com.project.Todo.entity.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryTodoStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryTodoStore store;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    // Active todos come back in list order, lookups return copies
+    @Test
+    public void test_save_and_find_in_list_order() throws IOException {
+        store = open();
+        Todo first = store.save(todo("First", 200));
+        Todo second = store.save(todo("Second", 100));
+        Todo deleted = todo("Deleted", 300);
+        deleted.setStatus(false);
+        store.save(deleted);
+
+        assertEquals(1L, first.getId());
+        assertEquals(0L, first.getVersion());
+        assertEquals(List.of("Second", "First"), store.findByStatusTrue().stream().map(Todo::getTitle).toList());
+        assertEquals(200, store.findMaxActivePosition());
+        assertEquals("Second", store.findFirstByStatusTrueOrderByPositionAscIdAsc().orElseThrow().getTitle());
+        assertEquals("First", store.findFirstByStatusTrueAndPositionGreaterThanOrderByPositionAscIdAsc(100).orElseThrow().getTitle());
+        assertEquals(2, store.countByStatusTrueAndCompletedFalse());
+        assertEquals(1, store.countByStatusFalse());
+
+        store.findTodoById(second.getId()).orElseThrow().setTitle("Changed");
+        assertEquals("Second", store.findTodoById(second.getId()).orElseThrow().getTitle());
+    }
+
+    // Saving a todo read before someone else's save fails like a JPA optimistic lock
+    @Test
+    public void test_stale_version_is_rejected() throws IOException {
+        store = open();
+        Todo saved = store.save(todo("Title", 100));
+        Todo stale = store.findTodoById(saved.getId()).orElseThrow();
+
+        Todo fresh = store.findTodoById(saved.getId()).orElseThrow();
+        fresh.setCompleted(true);
+        assertEquals(1L, store.save(fresh).getVersion());
+
+        stale.setTitle("Lost update");
+        assertThrows(OptimisticLockingFailureException.class, () -> store.save(stale));
+        assertEquals("Title", store.findTodoById(saved.getId()).orElseThrow().getTitle());
+    }
+
+    // State is rebuilt from snapshot and log, and an incomplete last record is dropped
+    @Test
+    public void test_restart_recovers_from_snapshot_and_log() throws IOException {
+        store = open();
+        for (int i = 0; i < 500; i++) {
+            store.save(todo("Todo " + i, (i + 1) * 10L));
+        }
+        store.snapshot();
+        Todo moved = store.findTodoById(1L).orElseThrow();
+        moved.setPosition(100_000);
+        store.save(moved);
+        store.rebalancePositions(1 << 16);
+        store.close();
+
+        Path log = files("wal-").get(0);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        store = open();
+        List<Todo> todos = store.findByStatusTrue();
+        assertEquals(500, todos.size());
+        assertEquals("Todo 1", todos.get(0).getTitle());
+        assertEquals("Todo 0", todos.get(499).getTitle());
+        assertEquals(500L * (1 << 16), todos.get(499).getPosition());
+        assertEquals(501L, store.save(todo("New", 1)).getId());
+        assertEquals(1, files("snapshot-").size());
+    }
+
+    // Templates and occurrences are found through their indexes, which follow updates and restarts
+    @Test
+    public void test_recurrence_indexes() throws IOException {
+        store = open();
+        Todo daily = todo("Daily", 10);
+        daily.setRecurrence("@daily");
+        daily = store.save(daily);
+        Todo weekly = todo("Weekly", 20);
+        weekly.setRecurrence("@weekly");
+        weekly = store.save(weekly);
+        Instant monday = Instant.parse("2030-01-07T09:00:00Z");
+        for (int day = 0; day < 5; day++) {
+            Todo occurrence = todo("Daily " + day, 100 + day);
+            occurrence.setTemplateId(daily.getId());
+            occurrence.setOccurrenceAt(monday.plus(Duration.ofDays(day)));
+            store.save(occurrence);
+        }
+        weekly.setStatus(false);
+        store.save(weekly);
+        store.close();
+
+        store = open();
+        assertEquals(List.of("Daily"), store.findByStatusTrueAndRecurrenceIsNotNull().stream().map(Todo::getTitle).toList());
+        assertEquals("Daily 2", store.findByTemplateIdAndOccurrenceAt(daily.getId(), monday.plus(Duration.ofDays(2)))
+                .orElseThrow().getTitle());
+        assertTrue(store.findByTemplateIdAndOccurrenceAt(daily.getId(), monday.plus(Duration.ofHours(1))).isEmpty());
+        assertTrue(store.findByTemplateIdAndOccurrenceAt(weekly.getId(), monday).isEmpty());
+        assertEquals(List.of("Daily 1", "Daily 2"), store.findByTemplateIdInAndOccurrenceAtGreaterThanEqualAndOccurrenceAtLessThan(
+                List.of(daily.getId(), weekly.getId()), monday.plus(Duration.ofDays(1)), monday.plus(Duration.ofDays(3)))
+                .stream().map(Todo::getTitle).toList());
+    }
+
+    private InMemoryTodoStore open() throws IOException {
+        InMemoryTodoStore todoStore = new InMemoryTodoStore(directory, false, DataSize.ofMegabytes(64));
+        todoStore.recover();
+        return todoStore;
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    private static Todo todo(String title, long position) {
+        Todo todo = new Todo(null, title, false, true);
+        todo.setPosition(position);
+        return todo;
+    }
+}
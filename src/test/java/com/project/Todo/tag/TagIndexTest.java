@@ -0,0 +1,131 @@
+package com.project.Todo.tag;
+
+import com.project.Todo.entity.Todo;
+import com.project.Todo.event.PeerChangedEvent;
+import com.project.Todo.event.TodoChangedEvent;
+import com.project.Todo.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TagIndexTest {
+
+    private TodoRepository todoRepository;
+    private TagIndex tagIndex;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository = mock(TodoRepository.class);
+        when(todoRepository.findByStatusTrue()).thenReturn(Arrays.asList(
+                todo(1L, false, "work", "urgent"),
+                todo(2L, true, "work"),
+                todo(3L, false, "home"),
+                todo(4L, false, "home", "urgent")));
+        tagIndex = new TagIndex(todoRepository);
+        tagIndex.rebuild();
+    }
+
+    // AND, OR and NOT combinations together with the completed flag
+    @Test
+    public void test_filter_tag_combinations() {
+        assertEquals(List.of(1L), tagIndex.filter(new TagFilter(Set.of("work", "urgent"), null, null, null), 100));
+        assertEquals(List.of(1L, 2L, 4L), tagIndex.filter(new TagFilter(null, Set.of("work", "urgent"), null, null), 100));
+        assertEquals(List.of(2L, 3L), tagIndex.filter(new TagFilter(null, null, Set.of("urgent"), null), 100));
+        assertEquals(List.of(1L), tagIndex.filter(new TagFilter(Set.of("work"), null, null, false), 100));
+        assertEquals(List.of(), tagIndex.filter(new TagFilter(Set.of("missing"), null, null, null), 100));
+    }
+
+    // Changes published by the service keep the index current
+    @Test
+    public void test_index_follows_changes() {
+        Todo previous = todo(3L, false, "home");
+        Todo retagged = todo(3L, true, "work");
+        tagIndex.onTodoChanged(new TodoChangedEvent(previous, retagged));
+
+        Todo deleted = todo(1L, false, "work", "urgent");
+        deleted.setStatus(false);
+        tagIndex.onTodoChanged(new TodoChangedEvent(todo(1L, false, "work", "urgent"), deleted));
+
+        assertEquals(List.of(2L, 3L), tagIndex.filter(new TagFilter(Set.of("work"), null, null, true), 100));
+        assertEquals(List.of(4L), tagIndex.filter(new TagFilter(Set.of("urgent"), null, null, null), 100));
+        assertEquals(1, tagIndex.tagCounts().get("home"));
+    }
+
+    // Results are capped at the limit, keeping the first matches in list order rather than the lowest ids
+    @Test
+    public void test_filter_respects_limit() {
+        assertEquals(List.of(1L, 2L), tagIndex.filter(new TagFilter(null, null, null, null), 2));
+
+        Todo moved = todo(4L, false, "home", "urgent");
+        moved.setPosition(-1);
+        tagIndex.onTodoChanged(new TodoChangedEvent(todo(4L, false, "home", "urgent"), moved));
+        assertEquals(List.of(4L, 1L), tagIndex.filter(new TagFilter(null, null, null, null), 2));
+        assertEquals(List.of(4L), tagIndex.filter(new TagFilter(null, Set.of("home"), null, null), 1));
+    }
+
+    // The first matches by position are kept whatever order the ids come in
+    @Test
+    public void test_limit_keeps_first_positions() {
+        Random random = new Random(7);
+        List<Todo> todos = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            Todo todo = todo(id, false, "work");
+            todo.setPosition(random.nextInt(200));
+            todos.add(todo);
+        }
+        when(todoRepository.findByStatusTrue()).thenReturn(todos);
+        tagIndex.rebuild();
+
+        List<Long> expected = todos.stream()
+                .sorted(Comparator.comparingLong(Todo::getPosition).thenComparing(Todo::getId))
+                .map(Todo::getId)
+                .limit(25)
+                .toList();
+        assertEquals(expected, tagIndex.filter(new TagFilter(Set.of("work"), null, null, null), 25));
+        assertEquals(1000, tagIndex.filter(new TagFilter(Set.of("work"), null, null, null), 5000).size());
+        assertEquals(List.of(), tagIndex.filter(new TagFilter(Set.of("work"), null, null, null), 0));
+    }
+
+    // Todos changed on another instance are reloaded, a retagged todo leaves its old tags
+    @Test
+    public void test_peer_changes_are_reloaded() {
+        Todo deleted = todo(1L, false, "work");
+        deleted.setStatus(false);
+        when(todoRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(todo(3L, true, "work"), deleted));
+
+        tagIndex.onPeerChanged(new PeerChangedEvent(List.of(3L, 1L)));
+
+        assertEquals(List.of(2L, 3L), tagIndex.filter(new TagFilter(Set.of("work"), null, null, null), 100));
+        assertEquals(List.of(4L), tagIndex.filter(new TagFilter(Set.of("urgent"), null, null, null), 100));
+        assertEquals(1, tagIndex.tagCounts().get("home"));
+    }
+
+    // A stale index hit is caught again on the loaded todo
+    @Test
+    public void test_filter_matches_loaded_todo() {
+        TagFilter filter = new TagFilter(Set.of("work"), Set.of("urgent", "soon"), Set.of("home"), false);
+        assertTrue(filter.matches(todo(1L, false, "work", "urgent")));
+        assertFalse(filter.matches(todo(2L, true, "work", "urgent")));
+        assertFalse(filter.matches(todo(3L, false, "work")));
+        assertFalse(filter.matches(todo(4L, false, "work", "urgent", "home")));
+        Todo deleted = todo(5L, false, "work", "urgent");
+        deleted.setStatus(false);
+        assertFalse(filter.matches(deleted));
+    }
+
+    private static Todo todo(long id, boolean completed, String... tags) {
+        Todo todo = new Todo(id, "Task " + id, completed, true);
+        todo.setTags(new LinkedHashSet<>(Arrays.asList(tags)));
+        return todo;
+    }
+}
@@ -0,0 +1,118 @@
+package com.project.Todo.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "management.tracing.sampling.probability=1.0",
+        "todo.tracing.exporter=none"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+public class TracingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private CollectingSpanExporter exporter;
+
+    // A toggle is one trace: request, then controller, then service, then store calls
+    @Test
+    public void test_toggle_spans_are_nested_by_layer() throws Exception {
+        String created = mockMvc.perform(post("/api/todo/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Traced\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = Long.parseLong(created.replaceAll(".*\"id\":(\\d+).*", "$1"));
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        exporter.spans.clear();
+
+        mockMvc.perform(put("/api/todo/setcomplete/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true));
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        Map<String, SpanData> byName = exporter.spans.stream()
+                .collect(Collectors.toMap(SpanData::getName, Function.identity(), (first, second) -> first));
+        SpanData api = byName.get("todo-api update-todo-complete");
+        SpanData service = byName.get("todo-service update-todo-complete");
+        SpanData find = byName.get("todo-store find-todo-by-id");
+        SpanData save = byName.get("todo-store save");
+        assertNotNull(api, byName.keySet().toString());
+        assertNotNull(service, byName.keySet().toString());
+        assertNotNull(find, byName.keySet().toString());
+        assertNotNull(save, byName.keySet().toString());
+
+        SpanData request = exporter.spans.stream()
+                .filter(span -> span.getSpanId().equals(api.getParentSpanId()))
+                .findFirst().orElseThrow();
+        assertTrue(request.getName().contains("setcomplete"), request.getName());
+        assertEquals(api.getSpanId(), service.getParentSpanId());
+        assertEquals(service.getSpanId(), find.getParentSpanId());
+        assertEquals(service.getSpanId(), save.getParentSpanId());
+        assertEquals(api.getTraceId(), save.getTraceId());
+        assertEquals("1", find.getAttributes().asMap().entrySet().stream()
+                .filter(attribute -> attribute.getKey().getKey().equals("todo.rows"))
+                .map(attribute -> attribute.getValue().toString())
+                .findFirst().orElse(null));
+    }
+
+    @TestConfiguration
+    static class ExporterConfig {
+        @Bean
+        CollectingSpanExporter collectingSpanExporter() {
+            return new CollectingSpanExporter();
+        }
+    }
+
+    static class CollectingSpanExporter implements SpanExporter {
+        final List<SpanData> spans = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}